@@ -25,6 +25,7 @@ public class Application {
                • POST   /api/accounts                    - Crear cuenta
                • POST   /api/transactions/transfer       - Realizar transferencia
                • GET    /api/transactions/stream         - Stream tiempo real
+               • WS     /api/transactions/stream/ws      - Stream binario por lotes
                • GET    /api/fraud/suspicious            - Transacciones sospechosas
             
             """);
@@ -9,9 +9,11 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.curso.reactivebanking.dto.AccountBalanceDTO;
 import com.curso.reactivebanking.dto.AccountDTO;
 import com.curso.reactivebanking.service.AccountService;
 
@@ -110,4 +112,19 @@ public class AccountController {
             .map(ResponseEntity::ok)
             .doOnSuccess(response -> log.debug("Balance obtenido: {}", response.getBody()));
     }
-} 
\ No newline at end of file
+    
+    @Operation(summary = "Stream del balance de cuenta",
+               description = "Envía el balance actual y después sus cambios, agrupados en una ventana configurable")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream iniciado"),
+        @ApiResponse(responseCode = "404", description = "Cuenta no encontrada")
+    })
+    @GetMapping(value = "/{id}/balance/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<AccountBalanceDTO> getBalanceStream(
+            @Parameter(description = "ID de la cuenta") @PathVariable UUID id) {
+        
+        log.info("GET /api/accounts/{}/balance/stream - Cliente conectado al stream de balance", id);
+        
+        return accountService.getBalanceStream(id);
+    }
+}
\ No newline at end of file
@@ -7,16 +7,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.dto.FraudReanalysisProgressDTO;
+import com.curso.reactivebanking.dto.FraudReanalysisRequestDTO;
+import com.curso.reactivebanking.dto.TransactionCursor;
+import com.curso.reactivebanking.dto.TransactionDTO;
+import com.curso.reactivebanking.dto.TransactionPageDTO;
+import com.curso.reactivebanking.fraud.FraudReason;
 import com.curso.reactivebanking.service.FraudDetectionService;
+import com.curso.reactivebanking.service.FraudReanalysisService;
 import com.curso.reactivebanking.service.TransactionService;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Slf4j
@@ -28,6 +37,7 @@ public class FraudController {
     
     private final FraudDetectionService fraudDetectionService;
     private final TransactionService transactionService;
+    private final FraudReanalysisService fraudReanalysisService;
     
     @Operation(summary = "Analizar transacción", 
                description = "Analiza una transacción específica para detectar fraude")
@@ -42,22 +52,7 @@ public class FraudController {
         
         log.info("GET /api/fraud/analyze/{} - Analizar transacción", transactionId);
         
-        return transactionService.getTransactionById(transactionId)
-            .map(transactionDTO -> {
-                // Convertir DTO a entidad para análisis
-                Transaction transaction = Transaction.builder()
-                    .id(transactionDTO.getId())
-                    .fromAccountId(transactionDTO.getFromAccountId())
-                    .toAccountId(transactionDTO.getToAccountId())
-                    .amount(transactionDTO.getAmount())
-                    .timestamp(transactionDTO.getTimestamp())
-                    .status(transactionDTO.getStatus())
-                    .fraudAnalysis(transactionDTO.getFraudAnalysis())
-                    .description(transactionDTO.getDescription())
-                    .build();
-                return transaction;
-            })
-            .flatMap(fraudDetectionService::analyzeTransaction)
+        return fraudDetectionService.analyzeTransactionById(transactionId)
             .map(analyzedTransaction -> {
                 String result = String.format(
                     "Análisis de fraude para transacción %s:\n" +
@@ -67,8 +62,7 @@ public class FraudController {
                     "Fecha: %s",
                     analyzedTransaction.getId(),
                     analyzedTransaction.getStatus(),
-                    analyzedTransaction.getFraudAnalysis() != null ? 
-                        analyzedTransaction.getFraudAnalysis() : "Sin análisis",
+                    Objects.requireNonNullElse(FraudReason.describe(analyzedTransaction), "Sin análisis"),
                     analyzedTransaction.getAmount(),
                     analyzedTransaction.getTimestamp()
                 );
@@ -78,15 +72,62 @@ public class FraudController {
     }
     
     @Operation(summary = "Transacciones sospechosas", 
-               description = "Obtiene todas las transacciones marcadas como sospechosas")
-    @ApiResponse(responseCode = "200", description = "Lista de transacciones sospechosas")
-    @GetMapping("/suspicious")
-    public Mono<ResponseEntity<List<Transaction>>> getSuspiciousTransactions() {
-        log.info("GET /api/fraud/suspicious - Obtener transacciones sospechosas");
+               description = "Obtiene una página de transacciones marcadas como sospechosas, o solo de las " +
+                             "marcadas con alguno de los motivos indicados, de la más reciente a la más antigua")
+    @ApiResponse(responseCode = "200", description = "Página de transacciones sospechosas")
+    @GetMapping(value = "/suspicious", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<TransactionPageDTO>> getSuspiciousTransactions(
+            @Parameter(description = "Motivos de fraude (HIGH_AMOUNT, HIGH_FREQUENCY, SUSPICIOUS_HOUR, AMOUNT_OUTLIER, HIGH_FAN_OUT, RULE_UNAVAILABLE)") 
+            @RequestParam(name = "reason", required = false) List<FraudReason> reasons,
+            @Parameter(description = "Cursor <timestamp>,<id> devuelto como nextCursor en la página anterior") 
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Tamaño de la página") 
+            @RequestParam(defaultValue = "100") int limit) {
+        log.info("GET /api/fraud/suspicious - Obtener transacciones sospechosas, motivos: {}, after: {}, limit: {}", 
+                reasons, after, limit);
         
-        return fraudDetectionService.getSuspiciousTransactions()
+        return fraudDetectionService.getSuspiciousTransactions(reasons == null ? List.of() : reasons,
+                TransactionCursor.parse(after), limit)
+            .collectList()
+            .map(transactions -> TransactionPageDTO.builder()
+                .transactions(transactions.stream()
+                    .map(transactionService::mapToDTO)
+                    .toList())
+                .nextCursor(transactions.size() < Math.min(limit, fraudDetectionService.getPageSize())
+                    ? null
+                    : TransactionCursor.of(transactions.get(transactions.size() - 1)).toString())
+                .build())
             .map(ResponseEntity::ok)
             .doOnSuccess(response -> log.info("Encontradas {} transacciones sospechosas", 
-                    response.getBody().size()));
+                    response.getBody().getTransactions().size()));
+    }
+    
+    @Operation(summary = "Stream de transacciones sospechosas", 
+               description = "Emite como NDJSON todas las transacciones sospechosas anteriores al cursor, " +
+                             "leyéndolas por páginas al ritmo del cliente")
+    @ApiResponse(responseCode = "200", description = "Transacciones sospechosas, una por línea")
+    @GetMapping(value = "/suspicious", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransactionDTO> streamSuspiciousTransactions(
+            @RequestParam(name = "reason", required = false) List<FraudReason> reasons,
+            @RequestParam(required = false) String after) {
+        log.info("GET /api/fraud/suspicious (NDJSON) - Stream de transacciones sospechosas, motivos: {}, after: {}", 
+                reasons, after);
+        
+        return fraudDetectionService.streamSuspiciousTransactions(reasons == null ? List.of() : reasons,
+                TransactionCursor.parse(after))
+            .map(transactionService::mapToDTO);
+    }
+    
+    @Operation(summary = "Reanalizar transacciones", 
+               description = "Vuelve a analizar las transacciones de un rango de fechas, o todas las pendientes, " +
+                             "y emite el progreso como Server-Sent Events")
+    @ApiResponse(responseCode = "200", description = "Progreso del reanálisis")
+    @PostMapping(value = "/reanalyze", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<FraudReanalysisProgressDTO> reanalyze(
+            @RequestBody(required = false) FraudReanalysisRequestDTO request) {
+        FraudReanalysisRequestDTO effectiveRequest = request != null ? request : new FraudReanalysisRequestDTO();
+        log.info("POST /api/fraud/reanalyze - Reanalizar transacciones: {}", effectiveRequest);
+        
+        return fraudReanalysisService.reanalyze(effectiveRequest);
     }
-} 
\ No newline at end of file
+}
@@ -8,18 +8,25 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 
 import com.curso.reactivebanking.dto.TransactionDTO;
+import com.curso.reactivebanking.dto.TransactionStatsDTO;
 import com.curso.reactivebanking.dto.TransferRequestDTO;
+import com.curso.reactivebanking.model.TransactionStatus;
 import com.curso.reactivebanking.service.TransactionService;
+import com.curso.reactivebanking.stream.TransactionStreamFilter;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -43,6 +50,17 @@ public class TransactionController {
             .map(transaction -> ResponseEntity.status(HttpStatus.CREATED).body(transaction));
     }
     
+    @Operation(summary = "Realizar transferencias por lotes",
+               description = "Acepta un array JSON o un stream NDJSON de transferencias y devuelve un resultado por transferencia")
+    @PostMapping(value = "/transfers/batch",
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransactionDTO> transferBatch(@RequestBody Flux<TransferRequestDTO> transferRequests) {
+        log.info("POST /api/transactions/transfers/batch - Transferencias por lotes");
+        
+        return transactionService.transferBatch(transferRequests);
+    }
+    
     @Operation(summary = "Obtener transacción por ID")
     @GetMapping("/{id}")
     public Mono<ResponseEntity<TransactionDTO>> getTransactionById(@PathVariable UUID id) {
@@ -60,12 +78,42 @@ public class TransactionController {
         return transactionService.getAccountTransactions(accountId);
     }
     
-    @Operation(summary = "Stream de transacciones en tiempo real")
+    @Operation(summary = "Stream de transacciones en tiempo real",
+               description = "Filtra opcionalmente por cuentas (origen o destino), estados y monto mínimo")
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<TransactionDTO> getTransactionStream() {
-        log.info("GET /api/transactions/stream - Cliente conectado al stream");
+    public Mono<Void> getTransactionStream(
+            @RequestParam(name = "accountId", required = false) Set<UUID> accountIds,
+            @RequestParam(name = "status", required = false) Set<TransactionStatus> statuses,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+            ServerHttpResponse response) {
+        log.info("GET /api/transactions/stream - Cliente conectado al stream, cuentas: {}, estados: {}, monto mínimo: {}, último evento: {}",
+                accountIds, statuses, minAmount, lastEventId);
+        
+        // Los frames llegan ya serializados: se envuelven sin copiar en lugar de pasar por el encoder JSON
+        response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+        DataBufferFactory bufferFactory = response.bufferFactory();
+        return response.writeAndFlushWith(
+            transactionService.getTransactionStream(new TransactionStreamFilter(accountIds, statuses, minAmount), lastEventId)
+                .map(frame -> Mono.just(bufferFactory.wrap(frame))));
+    }
+    
+    @Operation(summary = "Volumen de transacciones",
+               description = "Conteo, monto total y desglose por estado del último segundo, minuto y hora")
+    @GetMapping("/stats")
+    public Mono<TransactionStatsDTO> getStats() {
+        log.debug("GET /api/transactions/stats - Volumen de transacciones");
+        
+        return Mono.fromSupplier(transactionService::getStats);
+    }
+    
+    @Operation(summary = "Feed del volumen de transacciones",
+               description = "Envía periódicamente el volumen del último segundo, minuto y hora")
+    @GetMapping(value = "/stats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<TransactionStatsDTO> getStatsStream() {
+        log.info("GET /api/transactions/stats/stream - Cliente conectado al feed de volumen");
         
-        return transactionService.getTransactionStream();
+        return transactionService.getStatsStream();
     }
     
     @Operation(summary = "Últimas transacciones")
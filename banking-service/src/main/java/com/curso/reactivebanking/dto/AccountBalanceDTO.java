@@ -0,0 +1,26 @@
+package com.curso.reactivebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Balance vigente de una cuenta en el momento indicado
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceDTO {
+    
+    private UUID accountId;
+    
+    private BigDecimal balance;
+    
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,32 @@
+package com.curso.reactivebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progreso acumulado de un reanálisis de fraude
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FraudReanalysisProgressDTO {
+    
+    private long processed;
+    
+    /**
+     * Transacciones con algún motivo de fraude tras el reanálisis
+     */
+    private long flagged;
+    
+    /**
+     * Transacciones cuyo estado o motivos cambiaron
+     */
+    private long changed;
+    
+    private long elapsedMillis;
+    
+    private boolean completed;
+}
@@ -0,0 +1,28 @@
+package com.curso.reactivebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transacciones a reanalizar: las del rango [from, to] si se indica alguno de los extremos,
+ * o todas las PENDING si no
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FraudReanalysisRequestDTO {
+    
+    private LocalDateTime from;
+    
+    private LocalDateTime to;
+    
+    /**
+     * Solo calcula el resultado, sin actualizar las transacciones
+     */
+    private boolean dryRun;
+}
@@ -0,0 +1,48 @@
+package com.curso.reactivebanking.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+
+import com.curso.reactivebanking.model.Transaction;
+
+/**
+ * Cursor de paginación por clave (keyset) sobre (timestamp, id). En texto tiene la forma
+ * "2024-01-01T10:00:00.123,550e8400-e29b-41d4-a716-446655440000"
+ */
+public record TransactionCursor(LocalDateTime timestamp, UUID id) {
+    
+    /**
+     * Cursor anterior a cualquier transacción, para pedir la primera página
+     */
+    public static final TransactionCursor START = new TransactionCursor(LocalDateTime.of(9999, 12, 31, 23, 59), new UUID(0, 0));
+    
+    public static TransactionCursor of(Transaction transaction) {
+        return new TransactionCursor(transaction.getTimestamp(), transaction.getId());
+    }
+    
+    /**
+     * Interpreta el cursor en texto; null o vacío equivale a START
+     */
+    public static TransactionCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return START;
+        }
+        
+        int separator = value.indexOf(',');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Cursor inválido, se esperaba <timestamp>,<id>: " + value);
+        }
+        try {
+            return new TransactionCursor(LocalDateTime.parse(value.substring(0, separator).trim()),
+                    UUID.fromString(value.substring(separator + 1).trim()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor con fecha inválida: " + value);
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return timestamp + "," + id;
+    }
+}
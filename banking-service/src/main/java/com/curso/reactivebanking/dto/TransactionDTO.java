@@ -9,8 +9,10 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
+import com.curso.reactivebanking.fraud.FraudReason;
 import com.curso.reactivebanking.model.TransactionStatus;
 
 @Data
@@ -35,6 +37,8 @@ public class TransactionDTO {
     
     private TransactionStatus status;
     
+    private List<FraudReason> fraudReasons;
+    
     private String fraudAnalysis;
     
     private String description;
@@ -0,0 +1,25 @@
+package com.curso.reactivebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de transacciones con el cursor para pedir la siguiente
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageDTO {
+    
+    private List<TransactionDTO> transactions;
+    
+    /**
+     * Valor del parámetro after para la página siguiente, o null si es la última
+     */
+    private String nextCursor;
+}
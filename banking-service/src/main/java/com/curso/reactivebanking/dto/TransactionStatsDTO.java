@@ -0,0 +1,26 @@
+package com.curso.reactivebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Volumen de transacciones del último segundo, minuto y hora en el momento indicado
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionStatsDTO {
+    
+    private LocalDateTime timestamp;
+    
+    private TransactionWindowStatsDTO lastSecond;
+    
+    private TransactionWindowStatsDTO lastMinute;
+    
+    private TransactionWindowStatsDTO lastHour;
+}
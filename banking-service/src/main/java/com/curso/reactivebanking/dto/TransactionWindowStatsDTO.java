@@ -0,0 +1,34 @@
+package com.curso.reactivebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import com.curso.reactivebanking.model.TransactionStatus;
+
+/**
+ * Volumen de transacciones de una ventana deslizante
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionWindowStatsDTO {
+    
+    private long windowMillis;
+    
+    private long count;
+    
+    private BigDecimal totalAmount;
+    
+    /**
+     * Transacciones por segundo promedio en la ventana
+     */
+    private double perSecond;
+    
+    private Map<TransactionStatus, Long> byStatus;
+}
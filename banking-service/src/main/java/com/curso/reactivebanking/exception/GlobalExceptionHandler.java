@@ -62,6 +62,21 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error));
     }
     
+    @ExceptionHandler(TransferLaneSaturatedException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleTransferLaneSaturated(TransferLaneSaturatedException ex) {
+        log.warn("Carril de transferencias saturado: {}", ex.getMessage());
+        
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+            .error("Servicio saturado")
+            .message(ex.getMessage())
+            .path("/api/transactions")
+            .build();
+        
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error));
+    }
+    
     @ExceptionHandler(DuplicateAccountException.class)
     public Mono<ResponseEntity<ErrorResponse>> handleDuplicateAccount(DuplicateAccountException ex) {
         log.error("Cuenta duplicada: {}", ex.getMessage());
@@ -0,0 +1,9 @@
+package com.curso.reactivebanking.exception;
+
+public class TransferLaneSaturatedException extends RuntimeException {
+    
+    public TransferLaneSaturatedException(int lane, int capacity) {
+        super(String.format("El carril de transferencias %d está lleno (%d pendientes). Reintente más tarde", 
+                          lane, capacity));
+    }
+}
@@ -0,0 +1,140 @@
+package com.curso.reactivebanking.fraud;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.repository.TransactionRepository;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cuentas destino distintas por cuenta origen en la ventana banking.fraud.fan-out.window, estimadas
+ * con un HyperLogLog por cuenta (unos 1,5 KB cada uno) en lugar de un COUNT(DISTINCT) sobre la
+ * tabla transactions. Al arrancar se siembra con las transacciones de la ventana y las cuentas
+ * sin actividad en ella se descartan periódicamente.
+ */
+@Slf4j
+@Component
+public class AccountFanOutTracker implements SmartInitializingSingleton, DisposableBean {
+    
+    /**
+     * 256 registros por cubeta: error típico del 6,5% y casi sin colisiones con pocas cuentas destino
+     */
+    static final int PRECISION = 8;
+    static final int BUCKETS = 6;
+    
+    private final TransactionRepository transactionRepository;
+    private final boolean enabled;
+    private final Duration window;
+    private final long bucketSeconds;
+    private final Clock clock = Clock.systemDefaultZone();
+    private final Map<UUID, WindowedHyperLogLog> sketches = new ConcurrentHashMap<>();
+    private Disposable evictor;
+    
+    public AccountFanOutTracker(TransactionRepository transactionRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${banking.fraud.fan-out.enabled:true}") boolean enabled,
+                                @Value("${banking.fraud.fan-out.window:1h}") Duration window) {
+        this.transactionRepository = transactionRepository;
+        this.enabled = enabled;
+        this.window = window;
+        this.bucketSeconds = Math.max(1, window.toSeconds() / BUCKETS);
+        
+        Gauge.builder("banking.fraud.fan-out.tracked.accounts", sketches, Map::size)
+            .description("Cuentas con estimador de cuentas destino en memoria")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Siembra los estimadores con las transacciones de la ventana y arranca el descarte de cuentas inactivas
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        
+        LocalDateTime since = LocalDateTime.now(clock).minus(window);
+        Long seeded = transactionRepository.findByTimestampGreaterThanEqual(since)
+            .doOnNext(this::record)
+            .count()
+            .block();
+        log.info("Estimadores de cuentas destino sembrados con {} transacciones de la ventana de {}", seeded, window);
+        
+        evictor = Flux.interval(Duration.ofSeconds(bucketSeconds))
+            .subscribe(tick -> evictIdle());
+    }
+    
+    @Override
+    public void destroy() {
+        if (evictor != null) {
+            evictor.dispose();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public Duration getWindow() {
+        return window;
+    }
+    
+    /**
+     * Registra la cuenta destino de una transacción creada en el estimador de su cuenta origen
+     */
+    public void record(Transaction transaction) {
+        if (!enabled) {
+            return;
+        }
+        
+        long slot = transaction.getTimestamp().atZone(ZoneId.systemDefault()).toEpochSecond() / bucketSeconds;
+        UUID accountId = transaction.getFromAccountId();
+        WindowedHyperLogLog sketch = sketches.computeIfAbsent(accountId, id -> new WindowedHyperLogLog(PRECISION, BUCKETS));
+        sketch.add(transaction.getToAccountId(), slot);
+        
+        // Si el descarte retiró el estimador mientras se registraba, el valor se repite en el nuevo
+        while (sketches.get(accountId) != sketch) {
+            sketch = sketches.computeIfAbsent(accountId, id -> new WindowedHyperLogLog(PRECISION, BUCKETS));
+            sketch.add(transaction.getToAccountId(), slot);
+        }
+    }
+    
+    /**
+     * Cuentas destino distintas estimadas de la cuenta origen en la ventana
+     */
+    public long distinctCounterparties(UUID accountId) {
+        WindowedHyperLogLog sketch = sketches.get(accountId);
+        return sketch == null ? 0 : sketch.estimate(currentSlot());
+    }
+    
+    private long currentSlot() {
+        return clock.instant().getEpochSecond() / bucketSeconds;
+    }
+    
+    private void evictIdle() {
+        long slot = currentSlot();
+        int before = sketches.size();
+        sketches.forEach((accountId, sketch) -> {
+            if (sketch.isIdle(slot)) {
+                sketches.remove(accountId, sketch);
+            }
+        });
+        log.debug("Estimadores de cuentas destino inactivos descartados: {}", before - sketches.size());
+    }
+}
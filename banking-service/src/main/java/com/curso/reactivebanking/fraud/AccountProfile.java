@@ -0,0 +1,121 @@
+package com.curso.reactivebanking.fraud;
+
+import java.util.UUID;
+
+/**
+ * Perfil de comportamiento de una cuenta origen, actualizado incrementalmente con cada transacción
+ * aprobada y de tamaño fijo: media y varianza de los montos (algoritmo de Welford), histograma de
+ * horas del día y las contrapartes más frecuentes (algoritmo Space-Saving sobre arrays primitivos).
+ * Los métodos están sincronizados por perfil; la contención es la de una sola cuenta.
+ */
+public class AccountProfile {
+    
+    static final int COUNTERPARTY_SLOTS = 8;
+    
+    /**
+     * Desviación mínima relativa a la media, para que una cuenta con montos casi idénticos
+     * no marque como atípica cualquier variación pequeña
+     */
+    private static final double MIN_RELATIVE_DEVIATION = 0.1;
+    
+    private long count;
+    private double mean;
+    private double m2;
+    private final int[] hourHistogram = new int[24];
+    
+    /**
+     * Contrapartes como pares (bits altos, bits bajos) del UUID; counterpartyCounts[i] == 0 indica hueco libre
+     */
+    private final long[] counterparties = new long[COUNTERPARTY_SLOTS * 2];
+    private final int[] counterpartyCounts = new int[COUNTERPARTY_SLOTS];
+    
+    /**
+     * Contador heredado al ocupar el hueco: counterpartyCounts[i] - counterpartyErrors[i] es una cota
+     * inferior de las apariciones reales de la contraparte
+     */
+    private final int[] counterpartyErrors = new int[COUNTERPARTY_SLOTS];
+    
+    /**
+     * Registra una transacción aprobada
+     */
+    public synchronized void record(double amount, int hour, UUID counterparty) {
+        count++;
+        double delta = amount - mean;
+        mean += delta / count;
+        m2 += delta * (amount - mean);
+        hourHistogram[hour]++;
+        recordCounterparty(counterparty);
+    }
+    
+    public synchronized long count() {
+        return count;
+    }
+    
+    public synchronized double mean() {
+        return mean;
+    }
+    
+    public synchronized double standardDeviation() {
+        return count < 2 ? 0 : Math.sqrt(m2 / (count - 1));
+    }
+    
+    /**
+     * Número de desviaciones típicas que el monto se aleja por encima de la media
+     */
+    public synchronized double zScore(double amount) {
+        double deviation = Math.max(standardDeviation(), Math.abs(mean) * MIN_RELATIVE_DEVIATION);
+        if (deviation == 0) {
+            return 0;
+        }
+        return (amount - mean) / deviation;
+    }
+    
+    /**
+     * Fracción de las transacciones de la cuenta hechas en la hora indicada
+     */
+    public synchronized double hourShare(int hour) {
+        return count == 0 ? 0 : (double) hourHistogram[hour] / count;
+    }
+    
+    /**
+     * Verdadero si la contraparte está entre las frecuentes y consta con seguridad al menos dos veces
+     */
+    public synchronized boolean isTypicalCounterparty(UUID counterparty) {
+        int slot = findCounterparty(counterparty);
+        return slot >= 0 && counterpartyCounts[slot] - counterpartyErrors[slot] >= 2;
+    }
+    
+    /**
+     * Space-Saving: si la contraparte no está y no hay hueco, sustituye a la menos frecuente
+     * heredando su contador, de modo que las contrapartes frecuentes no se pierden
+     */
+    private void recordCounterparty(UUID counterparty) {
+        int slot = findCounterparty(counterparty);
+        if (slot >= 0) {
+            counterpartyCounts[slot]++;
+            return;
+        }
+        
+        int min = 0;
+        for (int i = 0; i < COUNTERPARTY_SLOTS; i++) {
+            if (counterpartyCounts[i] < counterpartyCounts[min]) {
+                min = i;
+            }
+        }
+        counterparties[min * 2] = counterparty.getMostSignificantBits();
+        counterparties[min * 2 + 1] = counterparty.getLeastSignificantBits();
+        counterpartyErrors[min] = counterpartyCounts[min];
+        counterpartyCounts[min]++;
+    }
+    
+    private int findCounterparty(UUID counterparty) {
+        long high = counterparty.getMostSignificantBits();
+        long low = counterparty.getLeastSignificantBits();
+        for (int i = 0; i < COUNTERPARTY_SLOTS; i++) {
+            if (counterpartyCounts[i] > 0 && counterparties[i * 2] == high && counterparties[i * 2 + 1] == low) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,111 @@
+package com.curso.reactivebanking.fraud;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.model.TransactionStatus;
+import com.curso.reactivebanking.repository.TransactionRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Perfiles de comportamiento por cuenta origen (banking.fraud.profiles), en memoria y acotados a
+ * banking.fraud.profiles.max-accounts cuentas. Se siembran al arrancar con las transacciones
+ * aprobadas de la última banking.fraud.profiles.seed-window y se actualizan con cada transacción aprobada confirmada, sin consultar el historial.
+ */
+@Slf4j
+@Component
+public class AccountProfileStore implements SmartInitializingSingleton {
+    
+    private final TransactionRepository transactionRepository;
+    private final boolean enabled;
+    private final int maxAccounts;
+    private final int minSamples;
+    private final Duration seedWindow;
+    private final Map<UUID, AccountProfile> profiles = new ConcurrentHashMap<>();
+    private final Counter rejected;
+    
+    public AccountProfileStore(TransactionRepository transactionRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${banking.fraud.profiles.enabled:true}") boolean enabled,
+                               @Value("${banking.fraud.profiles.max-accounts:100000}") int maxAccounts,
+                               @Value("${banking.fraud.profiles.min-samples:20}") int minSamples,
+                               @Value("${banking.fraud.profiles.seed-window:30d}") Duration seedWindow) {
+        this.transactionRepository = transactionRepository;
+        this.enabled = enabled;
+        this.maxAccounts = maxAccounts;
+        this.minSamples = minSamples;
+        this.seedWindow = seedWindow;
+        
+        Gauge.builder("banking.fraud.profiles.tracked.accounts", profiles, Map::size)
+            .description("Cuentas con perfil de comportamiento en memoria")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("banking.fraud.profiles.rejected")
+            .description("Transacciones sin perfil por alcanzar el máximo de cuentas")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Siembra los perfiles con las transacciones aprobadas recientes; el índice
+     * idx_transactions_status (status, timestamp, id) acota la lectura a la ventana
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        
+        LocalDateTime since = LocalDateTime.now().minus(seedWindow);
+        Long seeded = transactionRepository.findByStatusAndTimestampGreaterThanEqual(TransactionStatus.APPROVED, since)
+            .doOnNext(this::record)
+            .count()
+            .block();
+        log.info("Perfiles de comportamiento sembrados con {} transacciones aprobadas desde {} ({} cuentas)",
+                seeded, since, profiles.size());
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Actualiza el perfil de la cuenta origen con una transacción aprobada
+     */
+    public void record(Transaction transaction) {
+        if (!enabled || transaction.getStatus() != TransactionStatus.APPROVED) {
+            return;
+        }
+        
+        AccountProfile profile = profiles.get(transaction.getFromAccountId());
+        if (profile == null) {
+            if (profiles.size() >= maxAccounts) {
+                rejected.increment();
+                return;
+            }
+            profile = profiles.computeIfAbsent(transaction.getFromAccountId(), id -> new AccountProfile());
+        }
+        profile.record(transaction.getAmount().doubleValue(), transaction.getTimestamp().getHour(),
+                transaction.getToAccountId());
+    }
+    
+    /**
+     * Perfil de la cuenta si tiene al menos banking.fraud.profiles.min-samples transacciones, o null
+     */
+    public AccountProfile establishedProfile(UUID accountId) {
+        if (!enabled) {
+            return null;
+        }
+        AccountProfile profile = profiles.get(accountId);
+        return profile != null && profile.count() >= minSamples ? profile : null;
+    }
+}
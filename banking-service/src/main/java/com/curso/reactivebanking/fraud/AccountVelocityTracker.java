@@ -0,0 +1,123 @@
+package com.curso.reactivebanking.fraud;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.repository.TransactionRepository;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Velocidad de transacciones por cuenta origen en el último minuto, mantenida en memoria
+ * para la regla de frecuencia en lugar de un COUNT sobre la tabla transactions.
+ * Se activa con banking.fraud.frequency.source=memory; al arrancar se siembra con las
+ * transacciones del último minuto y las cuentas sin actividad en la ventana se descartan periódicamente.
+ */
+@Slf4j
+@Component
+public class AccountVelocityTracker implements SmartInitializingSingleton, DisposableBean {
+    
+    static final int WINDOW_SECONDS = 60;
+    
+    private final TransactionRepository transactionRepository;
+    private final boolean enabled;
+    private final Clock clock = Clock.systemDefaultZone();
+    private final Map<UUID, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+    private Disposable evictor;
+    
+    public AccountVelocityTracker(TransactionRepository transactionRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${banking.fraud.frequency.source:memory}") String frequencySource) {
+        this.transactionRepository = transactionRepository;
+        this.enabled = "memory".equalsIgnoreCase(frequencySource);
+        
+        Gauge.builder("banking.fraud.velocity.tracked.accounts", counters, Map::size)
+            .description("Cuentas con contador de velocidad en memoria")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Siembra los contadores con las transacciones de la última ventana y arranca el descarte de cuentas inactivas
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        
+        LocalDateTime since = LocalDateTime.now(clock).minusSeconds(WINDOW_SECONDS);
+        Long seeded = transactionRepository.findByTimestampGreaterThanEqual(since)
+            .doOnNext(this::record)
+            .count()
+            .block();
+        log.info("Contadores de velocidad sembrados con {} transacciones recientes", seeded);
+        
+        evictor = Flux.interval(Duration.ofSeconds(WINDOW_SECONDS))
+            .subscribe(tick -> evictIdle());
+    }
+    
+    @Override
+    public void destroy() {
+        if (evictor != null) {
+            evictor.dispose();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Registra una transacción creada en el contador de su cuenta origen
+     */
+    public void record(Transaction transaction) {
+        if (!enabled) {
+            return;
+        }
+        
+        long second = transaction.getTimestamp().atZone(ZoneId.systemDefault()).toEpochSecond();
+        UUID accountId = transaction.getFromAccountId();
+        SlidingWindowCounter counter = counters.computeIfAbsent(accountId, id -> new SlidingWindowCounter(WINDOW_SECONDS));
+        counter.record(second);
+        
+        // Si el descarte retiró el contador mientras se registraba, el evento se repite en el nuevo
+        while (counters.get(accountId) != counter) {
+            counter = counters.computeIfAbsent(accountId, id -> new SlidingWindowCounter(WINDOW_SECONDS));
+            counter.record(second);
+        }
+    }
+    
+    /**
+     * Transacciones de la cuenta origen en el último minuto
+     */
+    public long countLastMinute(UUID accountId) {
+        SlidingWindowCounter counter = counters.get(accountId);
+        return counter == null ? 0 : counter.count(clock.instant().getEpochSecond());
+    }
+    
+    private void evictIdle() {
+        long now = clock.instant().getEpochSecond();
+        int before = counters.size();
+        counters.forEach((accountId, counter) -> {
+            if (counter.isIdle(now)) {
+                counters.remove(accountId, counter);
+            }
+        });
+        log.debug("Contadores de velocidad inactivos descartados: {}", before - counters.size());
+    }
+}
@@ -0,0 +1,66 @@
+package com.curso.reactivebanking.fraud;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.model.Transaction;
+
+import java.util.Optional;
+
+/**
+ * Regla: Montos muy por encima de lo habitual para la cuenta son sospechosos.
+ * Usa el perfil de la cuenta origen; el umbral de z-score baja cuando además la contraparte
+ * no es habitual o la hora es poco frecuente para la cuenta. Sin perfil establecido no aplica
+ */
+@Component
+@RequiredArgsConstructor
+public class AmountOutlierRule implements FraudRule {
+    
+    /**
+     * Fracción de las transacciones de la cuenta por debajo de la cual una hora se considera inusual
+     */
+    private static final double UNUSUAL_HOUR_SHARE = 0.02;
+    
+    private final AccountProfileStore profileStore;
+    
+    @Value("${banking.fraud.profiles.z-threshold:4.0}")
+    private double zThreshold;
+    
+    @Value("${banking.fraud.profiles.unfamiliar-z-threshold:3.0}")
+    private double unfamiliarZThreshold;
+    
+    @Override
+    public String name() {
+        return "amount-outlier";
+    }
+    
+    @Override
+    public int cost() {
+        return 3;
+    }
+    
+    @Override
+    public boolean isSynchronous() {
+        return true;
+    }
+    
+    @Override
+    public Optional<FraudFinding> check(Transaction transaction) {
+        AccountProfile profile = profileStore.establishedProfile(transaction.getFromAccountId());
+        if (profile == null) {
+            return Optional.empty();
+        }
+        
+        double zScore = profile.zScore(transaction.getAmount().doubleValue());
+        if (zScore < unfamiliarZThreshold) {
+            return Optional.empty();
+        }
+        boolean unfamiliar = !profile.isTypicalCounterparty(transaction.getToAccountId())
+            || profile.hourShare(transaction.getTimestamp().getHour()) < UNUSUAL_HOUR_SHARE;
+        if (zScore >= zThreshold || unfamiliar) {
+            return Optional.of(FraudFinding.review(name(), FraudReason.AMOUNT_OUTLIER, Math.round(zScore * 100)));
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,191 @@
+package com.curso.reactivebanking.fraud;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.model.TransactionStatus;
+import com.curso.reactivebanking.repository.TransferBatchRepository;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Análisis de fraude diferido (banking.fraud.scoring.mode=DEFERRED). Las transferencias aprobadas
+ * por la vía rápida se encolan tras confirmarse; un flujo en segundo plano las agrupa en lotes,
+ * evalúa las reglas asíncronas con una llamada por regla y lote, y pasa a REVIEW las marcadas.
+ * La cola está acotada por banking.fraud.scoring.queue-capacity (encoladas más en análisis);
+ * cuando se llena se aplica banking.fraud.scoring.overflow-policy.
+ */
+@Slf4j
+@Component
+public class DeferredFraudScorer implements SmartInitializingSingleton, DisposableBean {
+    
+    private final FraudRuleEngine fraudRuleEngine;
+    private final TransferBatchRepository transferBatchRepository;
+    private final boolean enabled;
+    private final ScoringOverflowPolicy overflowPolicy;
+    private final int capacity;
+    private final int concurrency;
+    private final int batchSize;
+    private final Duration batchWindow;
+    
+    private final Sinks.Many<Transaction> queue;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final Counter scored;
+    private final Counter flagged;
+    private final Counter overflow;
+    private Disposable pipeline;
+    
+    public DeferredFraudScorer(FraudRuleEngine fraudRuleEngine,
+                               TransferBatchRepository transferBatchRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${banking.fraud.scoring.mode:INLINE}") FraudScoringMode mode,
+                               @Value("${banking.fraud.scoring.overflow-policy:SCORE_INLINE}") ScoringOverflowPolicy overflowPolicy,
+                               @Value("${banking.fraud.scoring.queue-capacity:10000}") int capacity,
+                               @Value("${banking.fraud.scoring.concurrency:4}") int concurrency,
+                               @Value("${banking.fraud.scoring.batch-size:100}") int batchSize,
+                               @Value("${banking.fraud.scoring.batch-window:50ms}") Duration batchWindow) {
+        this.fraudRuleEngine = fraudRuleEngine;
+        this.transferBatchRepository = transferBatchRepository;
+        this.enabled = mode == FraudScoringMode.DEFERRED && fraudRuleEngine.hasAsynchronousRules();
+        this.overflowPolicy = overflowPolicy;
+        this.capacity = capacity;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.batchWindow = batchWindow;
+        this.queue = Sinks.many().unicast().onBackpressureBuffer(Queues.<Transaction>get(capacity).get());
+        
+        Gauge.builder("banking.fraud.deferred.outstanding", outstanding, AtomicInteger::get)
+            .description("Transferencias encoladas o en análisis diferido")
+            .register(meterRegistry);
+        this.scored = Counter.builder("banking.fraud.deferred.scored")
+            .description("Transferencias analizadas en segundo plano")
+            .register(meterRegistry);
+        this.flagged = Counter.builder("banking.fraud.deferred.flagged")
+            .description("Transferencias pasadas a REVIEW por el análisis diferido")
+            .register(meterRegistry);
+        this.overflow = Counter.builder("banking.fraud.deferred.overflow")
+            .description("Transferencias que no cupieron en la cola de análisis diferido")
+            .tag("policy", overflowPolicy.name())
+            .register(meterRegistry);
+        
+        if (mode == FraudScoringMode.DEFERRED && !enabled) {
+            log.info("Análisis de fraude diferido sin efecto: no hay reglas asíncronas");
+        }
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        
+        pipeline = queue.asFlux()
+            .bufferTimeout(batchSize, batchWindow, true)
+            .flatMap(this::scoreBatch, concurrency)
+            .subscribe();
+        log.info("Análisis de fraude diferido activo: capacidad {}, concurrencia {}, lotes de {}",
+                capacity, concurrency, batchSize);
+    }
+    
+    @Override
+    public void destroy() {
+        if (pipeline != null) {
+            pipeline.dispose();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Verdadero si la cola está llena y la política obliga a evaluar todas las reglas antes de ejecutar
+     */
+    public boolean shouldScoreInline() {
+        if (outstanding.get() < capacity) {
+            return false;
+        }
+        if (overflowPolicy == ScoringOverflowPolicy.SCORE_INLINE) {
+            overflow.increment();
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Encola la transacción ya confirmada si se aprobó por la vía rápida
+     */
+    public void submit(Transaction transaction) {
+        if (!transaction.isFraudScoringDeferred() || transaction.getStatus() != TransactionStatus.APPROVED) {
+            return;
+        }
+        
+        if (outstanding.incrementAndGet() > capacity) {
+            outstanding.decrementAndGet();
+            dropped(transaction);
+            return;
+        }
+        
+        Sinks.EmitResult result;
+        while ((result = queue.tryEmitNext(transaction)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.onSpinWait();
+        }
+        if (result.isFailure()) {
+            outstanding.decrementAndGet();
+            dropped(transaction);
+        }
+    }
+    
+    private void dropped(Transaction transaction) {
+        overflow.increment();
+        log.warn("Cola de análisis diferido llena, transacción {} sin reglas asíncronas", transaction.getId());
+    }
+    
+    /**
+     * Evalúa las reglas asíncronas del lote y pasa a REVIEW las transacciones con indicadores
+     */
+    private Mono<Void> scoreBatch(List<Transaction> batch) {
+        return fraudRuleEngine.evaluateAsynchronous(batch)
+            .flatMap(findings -> {
+                List<Transaction> toReview = new ArrayList<>(findings.size());
+                for (Transaction transaction : batch) {
+                    List<FraudFinding> transactionFindings = findings.get(transaction.getId());
+                    if (transactionFindings != null) {
+                        transactionFindings.forEach(finding -> finding.reason().apply(transaction, finding.detail()));
+                        transaction.setStatus(TransactionStatus.REVIEW);
+                        toReview.add(transaction);
+                    }
+                }
+                return transferBatchRepository.markForReview(toReview)
+                    .doOnNext(updated -> {
+                        scored.increment(batch.size());
+                        flagged.increment(updated);
+                        if (updated > 0) {
+                            log.warn("Análisis diferido: {} de {} transacciones pasan a revisión", updated, batch.size());
+                        }
+                    });
+            })
+            .onErrorResume(error -> {
+                log.error("Error en el análisis de fraude diferido de {} transacciones: {}",
+                        batch.size(), error.getMessage());
+                return Mono.empty();
+            })
+            .doFinally(signal -> outstanding.addAndGet(-batch.size()))
+            .then();
+    }
+}
@@ -0,0 +1,73 @@
+package com.curso.reactivebanking.fraud;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Regla: Una cuenta que envía a muchas cuentas destino distintas en poco tiempo es sospechosa
+ * (patrón de cuenta mula). Consulta el estimador en memoria de la cuenta origen, sin acceder a la base de datos
+ */
+@Component
+@RequiredArgsConstructor
+public class FanOutRule implements FraudRule {
+    
+    private final AccountFanOutTracker fanOutTracker;
+    
+    @Value("${banking.fraud.fan-out.max-counterparties:10}")
+    private int maxCounterparties;
+    
+    @Override
+    public String name() {
+        return "fan-out";
+    }
+    
+    @Override
+    public int cost() {
+        return 2;
+    }
+    
+    @Override
+    public boolean isSynchronous() {
+        return true;
+    }
+    
+    @Override
+    public Optional<FraudFinding> check(Transaction transaction) {
+        if (!fanOutTracker.isEnabled()) {
+            return Optional.empty();
+        }
+        if (isOutsideWindow(transaction)) {
+            return evaluateRecorded(transaction);
+        }
+        return evaluate(fanOutTracker.distinctCounterparties(transaction.getFromAccountId()));
+    }
+    
+    /**
+     * Una transacción anterior a la ventana actual (reanálisis) ya no se refleja en el estimador
+     */
+    private boolean isOutsideWindow(Transaction transaction) {
+        return transaction.getTimestamp().isBefore(LocalDateTime.now().minus(fanOutTracker.getWindow()));
+    }
+    
+    /**
+     * Aplica el umbral actual a la estimación registrada cuando se analizó; si no se marcó
+     * entonces no se guardó y no puede volver a evaluarse
+     */
+    private Optional<FraudFinding> evaluateRecorded(Transaction transaction) {
+        Integer recorded = transaction.getFraudFanOut();
+        return recorded == null ? Optional.empty() : evaluate(recorded);
+    }
+    
+    private Optional<FraudFinding> evaluate(long distinct) {
+        if (distinct > maxCounterparties) {
+            return Optional.of(FraudFinding.review(name(), FraudReason.HIGH_FAN_OUT, distinct));
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,17 @@
+package com.curso.reactivebanking.fraud;
+
+/**
+ * Qué decidir cuando una regla asíncrona no responde dentro de su presupuesto, falla o tiene el
+ * circuito abierto (banking.fraud.engine.degrade-policy)
+ */
+public enum FraudDegradePolicy {
+    /**
+     * La transferencia queda PENDING con el motivo RULE_UNAVAILABLE
+     */
+    PENDING,
+    
+    /**
+     * La regla se omite y se decide solo con las reglas en memoria
+     */
+    SYNCHRONOUS_ONLY
+}
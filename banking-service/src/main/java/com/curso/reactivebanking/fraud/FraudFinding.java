@@ -0,0 +1,11 @@
+package com.curso.reactivebanking.fraud;
+
+/**
+ * Indicador de fraude detectado por una regla: su motivo y el dato numérico que lo acompaña
+ */
+public record FraudFinding(String rule, FraudVerdict verdict, FraudReason reason, long detail) {
+    
+    public static FraudFinding review(String rule, FraudReason reason, long detail) {
+        return new FraudFinding(rule, FraudVerdict.REVIEW, reason, detail);
+    }
+}
@@ -0,0 +1,190 @@
+package com.curso.reactivebanking.fraud;
+
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.model.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Motivos de fraude. Cada motivo ocupa un bit de transactions.fraud_reasons; el dato numérico
+ * que lo acompaña se guarda en su propia columna o se deriva de la transacción, y el texto
+ * legible solo se compone al construir una respuesta de la API.
+ */
+public enum FraudReason {
+    /**
+     * El monto supera el umbral; el detalle es el propio monto
+     */
+    HIGH_AMOUNT(1) {
+        @Override
+        String render(Transaction transaction) {
+            return "Alto monto: " + transaction.getAmount();
+        }
+    },
+    
+    /**
+     * Demasiadas transacciones en el último minuto; el detalle se guarda en fraud_velocity
+     */
+    HIGH_FREQUENCY(1 << 1) {
+        @Override
+        void recordDetail(Transaction transaction, long detail) {
+            transaction.setFraudVelocity((int) detail);
+        }
+        
+        @Override
+        String render(Transaction transaction) {
+            return "Frecuencia alta: " + transaction.getFraudVelocity() + " transacciones en 1 minuto";
+        }
+    },
+    
+    /**
+     * Transacción en horario inusual; el detalle es la hora de la transacción
+     */
+    SUSPICIOUS_HOUR(1 << 2) {
+        @Override
+        String render(Transaction transaction) {
+            return "Horario inusual: " + transaction.getTimestamp().getHour() + ":00";
+        }
+    },
+    
+    /**
+     * Monto atípico para el perfil de la cuenta; el z-score se guarda en fraud_amount_z_score,
+     * limitado al rango de la columna: con medias muy pequeñas puede ser enorme
+     */
+    AMOUNT_OUTLIER(1 << 3) {
+        @Override
+        void recordDetail(Transaction transaction, long detail) {
+            long hundredths = Math.max(-MAX_Z_SCORE_HUNDREDTHS, Math.min(MAX_Z_SCORE_HUNDREDTHS, detail));
+            transaction.setFraudAmountZScore(BigDecimal.valueOf(hundredths, 2));
+        }
+        
+        @Override
+        String render(Transaction transaction) {
+            return "Monto atípico para la cuenta: z=" + transaction.getFraudAmountZScore();
+        }
+    },
+    
+    /**
+     * Demasiadas cuentas destino distintas en la ventana; el detalle se guarda en fraud_fan_out
+     */
+    HIGH_FAN_OUT(1 << 4) {
+        @Override
+        void recordDetail(Transaction transaction, long detail) {
+            transaction.setFraudFanOut((int) detail);
+        }
+        
+        @Override
+        String render(Transaction transaction) {
+            return "Demasiadas cuentas destino: unas " + transaction.getFraudFanOut() + " distintas";
+        }
+    },
+    
+    /**
+     * Una regla no respondió dentro de su presupuesto, falló o tiene el circuito abierto
+     * (banking.fraud.engine.degrade-policy=PENDING); sin detalle
+     */
+    RULE_UNAVAILABLE(1 << 5) {
+        @Override
+        String render(Transaction transaction) {
+            return "Análisis incompleto: regla de fraude no disponible";
+        }
+    };
+    
+    /**
+     * Mayor z-score en centésimas que admite fraud_amount_z_score DECIMAL(8,2)
+     */
+    private static final long MAX_Z_SCORE_HUNDREDTHS = 99_999_999L;
+    
+    private static final FraudReason[] VALUES = values();
+    private static final int ALL = (1 << VALUES.length) - 1;
+    
+    private final int bit;
+    
+    FraudReason(int bit) {
+        this.bit = bit;
+    }
+    
+    public int bit() {
+        return bit;
+    }
+    
+    public boolean isSet(int mask) {
+        return (mask & bit) != 0;
+    }
+    
+    /**
+     * Guarda en la transacción el dato numérico del motivo, si no es derivable de ella
+     */
+    void recordDetail(Transaction transaction, long detail) {
+    }
+    
+    abstract String render(Transaction transaction);
+    
+    /**
+     * Marca el motivo en la transacción junto con su dato numérico
+     */
+    public void apply(Transaction transaction, long detail) {
+        transaction.setFraudReasons(transaction.getFraudReasons() | bit);
+        recordDetail(transaction, detail);
+    }
+    
+    /**
+     * Motivos marcados en la máscara, en orden de bit
+     */
+    public static List<FraudReason> fromMask(int mask) {
+        List<FraudReason> reasons = new ArrayList<>();
+        for (FraudReason reason : VALUES) {
+            if (reason.isSet(mask)) {
+                reasons.add(reason);
+            }
+        }
+        return reasons;
+    }
+    
+    /**
+     * Todos los valores posibles de fraud_reasons que incluyen alguno de los motivos indicados.
+     * Permite filtrar con fraud_reasons IN (...) sobre el índice en lugar de operar con bits por fila
+     */
+    public static List<Integer> masksContainingAny(Collection<FraudReason> reasons) {
+        int wanted = 0;
+        for (FraudReason reason : reasons) {
+            wanted |= reason.bit;
+        }
+        List<Integer> masks = new ArrayList<>();
+        for (int mask = 1; mask <= ALL; mask++) {
+            if ((mask & wanted) != 0) {
+                masks.add(mask);
+            }
+        }
+        return masks;
+    }
+    
+    /**
+     * Texto legible del análisis de fraude: los motivos marcados y, si lo hay, el texto libre
+     * de fraud_analysis (errores de ejecución)
+     */
+    public static String describe(Transaction transaction) {
+        int mask = transaction.getFraudReasons();
+        String analysis = transaction.getFraudAnalysis();
+        if (mask == 0) {
+            if (analysis == null && transaction.getStatus() == TransactionStatus.APPROVED) {
+                return "Sin indicadores de fraude";
+            }
+            return analysis;
+        }
+        
+        StringJoiner joiner = new StringJoiner("; ");
+        for (FraudReason reason : VALUES) {
+            if (reason.isSet(mask)) {
+                joiner.add(reason.render(transaction));
+            }
+        }
+        if (analysis != null) {
+            joiner.add(analysis);
+        }
+        return joiner.toString();
+    }
+}
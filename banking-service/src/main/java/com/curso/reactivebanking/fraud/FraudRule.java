@@ -0,0 +1,68 @@
+package com.curso.reactivebanking.fraud;
+
+import com.curso.reactivebanking.model.Transaction;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Regla de detección de fraude. Las implementaciones se registran como beans y
+ * FraudRuleEngine las ordena: primero las síncronas de menor coste, después las
+ * asíncronas en paralelo.
+ */
+public interface FraudRule {
+    
+    /**
+     * Nombre de la regla, usado en métricas y logs
+     */
+    String name();
+    
+    /**
+     * Coste relativo de evaluar la regla; las reglas más baratas se evalúan antes
+     */
+    int cost();
+    
+    /**
+     * Verdadero si la regla se evalúa en memoria sin E/S mediante check
+     */
+    boolean isSynchronous();
+    
+    /**
+     * Veredicto más severo que puede producir la regla. Permite al motor detenerse
+     * cuando ninguna regla pendiente podría empeorar el veredicto ya obtenido
+     */
+    default FraudVerdict maxVerdict() {
+        return FraudVerdict.REVIEW;
+    }
+    
+    /**
+     * Evaluación síncrona; solo se invoca si isSynchronous() es verdadero
+     */
+    default Optional<FraudFinding> check(Transaction transaction) {
+        throw new UnsupportedOperationException("La regla " + name() + " no es síncrona");
+    }
+    
+    /**
+     * Evaluación asíncrona; vacío si la regla no detecta nada
+     */
+    default Mono<FraudFinding> checkAsync(Transaction transaction) {
+        return Mono.fromSupplier(() -> check(transaction).orElse(null));
+    }
+    
+    /**
+     * Evaluación de un lote de transacciones, usada por el análisis diferido. Devuelve los
+     * indicadores por ID de transacción; las reglas con E/S pueden sobrescribirla para
+     * resolver el lote con una sola consulta
+     */
+    default Mono<Map<UUID, FraudFinding>> checkBatch(List<Transaction> transactions) {
+        return Flux.fromIterable(transactions)
+            .flatMap(transaction -> checkAsync(transaction)
+                .map(finding -> Map.entry(transaction.getId(), finding)))
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+}
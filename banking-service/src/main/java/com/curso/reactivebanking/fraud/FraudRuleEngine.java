@@ -0,0 +1,249 @@
+package com.curso.reactivebanking.fraud;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.service.PipelineMetrics;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Evalúa las reglas de fraude registradas. Las reglas síncronas se evalúan primero, en orden
+ * de coste y sin ensamblar operadores reactivos; después las asíncronas se evalúan en paralelo.
+ * Con banking.fraud.engine.short-circuit la evaluación se detiene en cuanto ninguna regla
+ * pendiente puede producir un veredicto más severo que el ya obtenido.
+ * Cada regla asíncrona tiene un presupuesto de tiempo (banking.fraud.engine.rule-timeout) y un
+ * circuito que se abre tras fallos o agotamientos consecutivos; si no responde a tiempo, falla o
+ * tiene el circuito abierto se aplica banking.fraud.engine.degrade-policy.
+ */
+@Slf4j
+@Component
+public class FraudRuleEngine {
+    
+    private static final String CAUSE_OPEN = "open";
+    private static final String CAUSE_TIMEOUT = "timeout";
+    private static final String CAUSE_ERROR = "error";
+    private static final List<String> DEGRADE_CAUSES = List.of(CAUSE_OPEN, CAUSE_TIMEOUT, CAUSE_ERROR);
+    
+    private final PipelineMetrics pipelineMetrics;
+    private final boolean shortCircuit;
+    private final Duration ruleTimeout;
+    private final FraudDegradePolicy degradePolicy;
+    private final Map<String, RuleCircuitBreaker> circuitBreakers = new HashMap<>();
+    private final Map<String, Counter> degradedCounters = new HashMap<>();
+    private final List<FraudRule> synchronousRules = new ArrayList<>();
+    private final List<FraudRule> asynchronousRules = new ArrayList<>();
+    private final Map<String, Integer> ruleOrder = new HashMap<>();
+    private final Comparator<FraudFinding> byRuleOrder = Comparator.comparingInt(finding -> ruleOrder.get(finding.rule()));
+    
+    /**
+     * remainingMaxVerdict[i]: veredicto más severo que pueden producir las reglas síncronas
+     * desde la posición i más todas las asíncronas
+     */
+    private final FraudVerdict[] remainingMaxVerdict;
+    private final FraudVerdict asynchronousMaxVerdict;
+    
+    public FraudRuleEngine(List<FraudRule> rules,
+                           PipelineMetrics pipelineMetrics,
+                           MeterRegistry meterRegistry,
+                           @Value("${banking.fraud.engine.short-circuit:true}") boolean shortCircuit,
+                           @Value("${banking.fraud.engine.rule-timeout:200ms}") Duration ruleTimeout,
+                           @Value("${banking.fraud.engine.degrade-policy:PENDING}") FraudDegradePolicy degradePolicy,
+                           @Value("${banking.fraud.engine.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                           @Value("${banking.fraud.engine.circuit-breaker.open-duration:10s}") Duration openDuration) {
+        this.pipelineMetrics = pipelineMetrics;
+        this.shortCircuit = shortCircuit;
+        this.ruleTimeout = ruleTimeout;
+        this.degradePolicy = degradePolicy;
+        
+        List<FraudRule> ordered = rules.stream()
+            .sorted(Comparator.comparing((FraudRule rule) -> !rule.isSynchronous())
+                .thenComparingInt(FraudRule::cost))
+            .toList();
+        for (FraudRule rule : ordered) {
+            ruleOrder.put(rule.name(), ruleOrder.size());
+            (rule.isSynchronous() ? synchronousRules : asynchronousRules).add(rule);
+        }
+        
+        asynchronousMaxVerdict = maxVerdict(asynchronousRules, null);
+        remainingMaxVerdict = new FraudVerdict[synchronousRules.size() + 1];
+        remainingMaxVerdict[synchronousRules.size()] = asynchronousMaxVerdict;
+        for (int i = synchronousRules.size() - 1; i >= 0; i--) {
+            remainingMaxVerdict[i] = max(remainingMaxVerdict[i + 1], synchronousRules.get(i).maxVerdict());
+        }
+        
+        for (FraudRule rule : asynchronousRules) {
+            RuleCircuitBreaker breaker = new RuleCircuitBreaker(failureThreshold, openDuration.toNanos(), System::nanoTime);
+            circuitBreakers.put(rule.name(), breaker);
+            Gauge.builder("banking.fraud.rule.circuit.open", breaker, b -> b.isOpen() ? 1 : 0)
+                .description("1 si el circuito de la regla de fraude está abierto")
+                .tag("rule", rule.name())
+                .register(meterRegistry);
+            for (String cause : DEGRADE_CAUSES) {
+                degradedCounters.put(rule.name() + '|' + cause, Counter.builder("banking.fraud.degraded")
+                    .description("Decisiones de fraude tomadas sin la regla por agotar su presupuesto, fallar o tener el circuito abierto")
+                    .tag("rule", rule.name())
+                    .tag("cause", cause)
+                    .tag("policy", degradePolicy.name())
+                    .register(meterRegistry));
+            }
+        }
+        
+        log.info("Reglas de fraude: síncronas {}, asíncronas {}",
+                synchronousRules.stream().map(FraudRule::name).toList(),
+                asynchronousRules.stream().map(FraudRule::name).toList());
+    }
+    
+    /**
+     * Evalúa la transacción y devuelve los indicadores detectados en el orden de las reglas
+     */
+    public Mono<List<FraudFinding>> evaluate(Transaction transaction) {
+        return Mono.defer(() -> {
+            List<FraudFinding> findings = new ArrayList<>();
+            if (evaluateSynchronousRules(transaction, findings) || asynchronousRules.isEmpty()) {
+                return Mono.just(findings);
+            }
+            
+            FraudVerdict synchronousWorst = worst(findings);
+            return Flux.fromIterable(asynchronousRules)
+                .flatMap(rule -> checkWithinBudget(rule, transaction), asynchronousRules.size())
+                .takeUntil(finding -> isFinal(max(synchronousWorst, finding.verdict()), asynchronousMaxVerdict))
+                .collectList()
+                .map(asynchronousFindings -> {
+                    findings.addAll(asynchronousFindings);
+                    findings.sort(byRuleOrder);
+                    return findings;
+                });
+        });
+    }
+    
+    /**
+     * Evalúa solo las reglas síncronas, sin ensamblar operadores reactivos
+     */
+    public List<FraudFinding> evaluateSynchronous(Transaction transaction) {
+        List<FraudFinding> findings = new ArrayList<>();
+        evaluateSynchronousRules(transaction, findings);
+        return findings;
+    }
+    
+    public boolean hasAsynchronousRules() {
+        return !asynchronousRules.isEmpty();
+    }
+    
+    /**
+     * Evalúa las reglas asíncronas sobre un lote, una llamada a checkBatch por regla.
+     * Devuelve los indicadores por ID de transacción; las transacciones sin indicadores no aparecen
+     */
+    public Mono<Map<UUID, List<FraudFinding>>> evaluateAsynchronous(List<Transaction> transactions) {
+        return Flux.fromIterable(asynchronousRules)
+            .flatMap(rule -> rule.checkBatch(transactions)
+                .transform(pipelineMetrics.fraudRule(rule.name() + ":batch")), asynchronousRules.size())
+            .collectList()
+            .map(results -> {
+                Map<UUID, List<FraudFinding>> findings = new HashMap<>();
+                for (Map<UUID, FraudFinding> ruleFindings : results) {
+                    ruleFindings.forEach((transactionId, finding) ->
+                        findings.computeIfAbsent(transactionId, id -> new ArrayList<>()).add(finding));
+                }
+                findings.values().forEach(list -> list.sort(byRuleOrder));
+                return findings;
+            });
+    }
+    
+    /**
+     * Evalúa la regla asíncrona con su presupuesto de tiempo y su circuito; si no hay respuesta
+     * válida aplica la política de degradación
+     */
+    private Mono<FraudFinding> checkWithinBudget(FraudRule rule, Transaction transaction) {
+        RuleCircuitBreaker breaker = circuitBreakers.get(rule.name());
+        if (!breaker.tryAcquire()) {
+            return degraded(rule, transaction, CAUSE_OPEN);
+        }
+        
+        return rule.checkAsync(transaction)
+            .timeout(ruleTimeout)
+            .transform(pipelineMetrics.fraudRule(rule.name()))
+            .doOnSuccess(finding -> breaker.onSuccess())
+            .onErrorResume(error -> {
+                if (breaker.onFailure()) {
+                    log.warn("Circuito abierto para la regla de fraude {}: último fallo {}", rule.name(), error.toString());
+                }
+                return degraded(rule, transaction, error instanceof TimeoutException ? CAUSE_TIMEOUT : CAUSE_ERROR);
+            });
+    }
+    
+    private Mono<FraudFinding> degraded(FraudRule rule, Transaction transaction, String cause) {
+        degradedCounters.get(rule.name() + '|' + cause).increment();
+        log.debug("Regla de fraude {} no evaluada para la transacción {} ({}): política {}",
+                rule.name(), transaction.getId(), cause, degradePolicy);
+        if (degradePolicy == FraudDegradePolicy.PENDING) {
+            return Mono.just(FraudFinding.review(rule.name(), FraudReason.RULE_UNAVAILABLE, 0));
+        }
+        return Mono.empty();
+    }
+    
+    /**
+     * Añade los indicadores de las reglas síncronas; verdadero si el veredicto ya es definitivo
+     */
+    private boolean evaluateSynchronousRules(Transaction transaction, List<FraudFinding> findings) {
+        FraudVerdict worst = null;
+        for (int i = 0; i < synchronousRules.size(); i++) {
+            FraudRule rule = synchronousRules.get(i);
+            Optional<FraudFinding> finding = pipelineMetrics.recordFraudRule(rule.name(), () -> rule.check(transaction));
+            if (finding.isPresent()) {
+                findings.add(finding.get());
+                worst = max(worst, finding.get().verdict());
+            }
+            if (isFinal(worst, remainingMaxVerdict[i + 1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean isFinal(FraudVerdict worst, FraudVerdict remainingMax) {
+        return shortCircuit && worst != null && (remainingMax == null || worst.compareTo(remainingMax) >= 0);
+    }
+    
+    private static FraudVerdict worst(List<FraudFinding> findings) {
+        FraudVerdict result = null;
+        for (FraudFinding finding : findings) {
+            result = max(result, finding.verdict());
+        }
+        return result;
+    }
+    
+    private static FraudVerdict maxVerdict(List<FraudRule> rules, FraudVerdict initial) {
+        FraudVerdict result = initial;
+        for (FraudRule rule : rules) {
+            result = max(result, rule.maxVerdict());
+        }
+        return result;
+    }
+    
+    private static FraudVerdict max(FraudVerdict a, FraudVerdict b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
@@ -0,0 +1,17 @@
+package com.curso.reactivebanking.fraud;
+
+/**
+ * Momento en que se evalúan las reglas de fraude asíncronas (banking.fraud.scoring.mode)
+ */
+public enum FraudScoringMode {
+    /**
+     * Todas las reglas se evalúan antes de ejecutar la transferencia
+     */
+    INLINE,
+    
+    /**
+     * Solo las reglas síncronas se evalúan antes de ejecutar la transferencia; las asíncronas
+     * se evalúan en segundo plano y las transferencias marcadas pasan a REVIEW
+     */
+    DEFERRED
+}
@@ -0,0 +1,28 @@
+package com.curso.reactivebanking.fraud;
+
+import com.curso.reactivebanking.model.TransactionStatus;
+
+/**
+ * Veredicto que aporta una regla de fraude, de menor a mayor severidad
+ */
+public enum FraudVerdict {
+    /**
+     * La transacción queda pendiente de revisión manual
+     */
+    REVIEW(TransactionStatus.PENDING),
+    
+    /**
+     * La transacción se rechaza; ninguna regla posterior puede cambiarlo
+     */
+    REJECT(TransactionStatus.REJECTED);
+    
+    private final TransactionStatus status;
+    
+    FraudVerdict(TransactionStatus status) {
+        this.status = status;
+    }
+    
+    public TransactionStatus status() {
+        return status;
+    }
+}
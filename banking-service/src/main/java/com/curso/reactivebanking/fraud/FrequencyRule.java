@@ -0,0 +1,122 @@
+package com.curso.reactivebanking.fraud;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.repository.TransactionRepository;
+import com.curso.reactivebanking.repository.TransactionRepository.AccountTransactionCount;
+
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Regla: Múltiples transacciones en poco tiempo son sospechosas.
+ * Es síncrona con el contador en memoria y asíncrona (COUNT sobre transactions) con
+ * banking.fraud.frequency.source=database. Ambas fuentes incluyen la transacción analizada: la
+ * consulta la excluye y la suma aparte, porque según el modo de persistencia aún no está insertada
+ */
+@Component
+@RequiredArgsConstructor
+public class FrequencyRule implements FraudRule {
+    
+    private final AccountVelocityTracker velocityTracker;
+    private final TransactionRepository transactionRepository;
+    
+    @Value("${banking.fraud.max-transactions-per-minute:3}")
+    private int maxTransactionsPerMinute;
+    
+    @Override
+    public String name() {
+        return "frequency";
+    }
+    
+    @Override
+    public int cost() {
+        return velocityTracker.isEnabled() ? 2 : 100;
+    }
+    
+    @Override
+    public boolean isSynchronous() {
+        return velocityTracker.isEnabled();
+    }
+    
+    @Override
+    public Optional<FraudFinding> check(Transaction transaction) {
+        if (isOutsideWindow(transaction)) {
+            return evaluateRecorded(transaction);
+        }
+        return evaluate(velocityTracker.countLastMinute(transaction.getFromAccountId()));
+    }
+    
+    @Override
+    public Mono<FraudFinding> checkAsync(Transaction transaction) {
+        if (velocityTracker.isEnabled() || isOutsideWindow(transaction)) {
+            return Mono.justOrEmpty(check(transaction));
+        }
+        LocalDateTime oneMinuteAgo = LocalDateTime.now().minusMinutes(1);
+        return transactionRepository.countTransactionsFromAccountSince(
+                transaction.getFromAccountId(), oneMinuteAgo, transaction.getId())
+            .flatMap(count -> Mono.justOrEmpty(evaluate(count + 1)));
+    }
+    
+    /**
+     * Con la fuente de base de datos cuenta las transacciones de todas las cuentas del lote en una consulta.
+     * Las del propio lote se excluyen de la consulta y se suman aparte, estén insertadas o no
+     */
+    @Override
+    public Mono<Map<UUID, FraudFinding>> checkBatch(List<Transaction> transactions) {
+        if (velocityTracker.isEnabled()) {
+            return FraudRule.super.checkBatch(transactions);
+        }
+        Map<UUID, Long> batchCounts = transactions.stream()
+            .collect(Collectors.groupingBy(Transaction::getFromAccountId, Collectors.counting()));
+        Set<UUID> transactionIds = transactions.stream()
+            .map(Transaction::getId)
+            .collect(Collectors.toSet());
+        LocalDateTime oneMinuteAgo = LocalDateTime.now().minusMinutes(1);
+        return transactionRepository.countTransactionsFromAccountsSince(batchCounts.keySet(), oneMinuteAgo, transactionIds)
+            .collectMap(AccountTransactionCount::fromAccountId, AccountTransactionCount::total)
+            .map(counts -> {
+                Map<UUID, FraudFinding> findings = new HashMap<>();
+                for (Transaction transaction : transactions) {
+                    UUID accountId = transaction.getFromAccountId();
+                    evaluate(counts.getOrDefault(accountId, 0L) + batchCounts.get(accountId))
+                        .ifPresent(finding -> findings.put(transaction.getId(), finding));
+                }
+                return findings;
+            });
+    }
+    
+    /**
+     * Una transacción de hace más de un minuto (reanálisis) ya no está en la ventana actual
+     */
+    private boolean isOutsideWindow(Transaction transaction) {
+        return transaction.getTimestamp().isBefore(LocalDateTime.now().minusMinutes(1));
+    }
+    
+    /**
+     * Aplica el umbral actual al número de transacciones registrado cuando se analizó; si no se
+     * marcó entonces no se guardó el número y no puede volver a evaluarse
+     */
+    private Optional<FraudFinding> evaluateRecorded(Transaction transaction) {
+        Integer recorded = transaction.getFraudVelocity();
+        return recorded == null ? Optional.empty() : evaluate(recorded);
+    }
+    
+    private Optional<FraudFinding> evaluate(long count) {
+        if (count >= maxTransactionsPerMinute) {
+            return Optional.of(FraudFinding.review(name(), FraudReason.HIGH_FREQUENCY, count));
+        }
+        return Optional.empty();
+    }
+}
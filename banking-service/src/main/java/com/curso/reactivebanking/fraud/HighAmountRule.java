@@ -0,0 +1,48 @@
+package com.curso.reactivebanking.fraud;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.model.Transaction;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Regla: Transacciones de alto monto son sospechosas.
+ * Las cuentas con perfil establecido se evalúan con AmountOutlierRule en lugar del umbral fijo
+ */
+@Component
+@RequiredArgsConstructor
+public class HighAmountRule implements FraudRule {
+    
+    private final AccountProfileStore profileStore;
+    
+    @Value("${banking.fraud.high-amount-threshold:5000.00}")
+    private BigDecimal highAmountThreshold;
+    
+    @Override
+    public String name() {
+        return "high-amount";
+    }
+    
+    @Override
+    public int cost() {
+        return 1;
+    }
+    
+    @Override
+    public boolean isSynchronous() {
+        return true;
+    }
+    
+    @Override
+    public Optional<FraudFinding> check(Transaction transaction) {
+        if (transaction.getAmount().compareTo(highAmountThreshold) > 0
+                && profileStore.establishedProfile(transaction.getFromAccountId()) == null) {
+            return Optional.of(FraudFinding.review(name(), FraudReason.HIGH_AMOUNT, 0));
+        }
+        return Optional.empty();
+    }
+}
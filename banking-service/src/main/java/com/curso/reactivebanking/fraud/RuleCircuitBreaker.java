@@ -0,0 +1,60 @@
+package com.curso.reactivebanking.fraud;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuito de una regla de fraude, sin bloqueos. Se abre tras failureThreshold fallos
+ * consecutivos y mientras está abierto la regla no se evalúa; pasado el tiempo de apertura se
+ * deja pasar una sola evaluación de prueba por periodo, que lo cierra si tiene éxito.
+ */
+public class RuleCircuitBreaker {
+    
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong retryAt = new AtomicLong();
+    private volatile boolean open;
+    
+    public RuleCircuitBreaker(int failureThreshold, long openNanos, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+        this.nanoClock = nanoClock;
+    }
+    
+    /**
+     * Verdadero si la regla puede evaluarse: el circuito está cerrado o toca una evaluación de prueba
+     */
+    public boolean tryAcquire() {
+        if (!open) {
+            return true;
+        }
+        long now = nanoClock.getAsLong();
+        long at = retryAt.get();
+        return now - at >= 0 && retryAt.compareAndSet(at, now + openNanos);
+    }
+    
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        open = false;
+    }
+    
+    /**
+     * Registra un fallo; verdadero si el circuito estaba cerrado y se acaba de abrir
+     */
+    public boolean onFailure() {
+        if (consecutiveFailures.incrementAndGet() < failureThreshold && !open) {
+            return false;
+        }
+        retryAt.set(nanoClock.getAsLong() + openNanos);
+        boolean opened = !open;
+        open = true;
+        return opened;
+    }
+    
+    public boolean isOpen() {
+        return open;
+    }
+}
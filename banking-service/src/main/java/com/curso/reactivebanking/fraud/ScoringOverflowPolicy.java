@@ -0,0 +1,17 @@
+package com.curso.reactivebanking.fraud;
+
+/**
+ * Qué hacer con una transferencia de la vía rápida cuando la cola de análisis diferido está llena
+ * (banking.fraud.scoring.overflow-policy)
+ */
+public enum ScoringOverflowPolicy {
+    /**
+     * Evaluar todas las reglas antes de ejecutar la transferencia, como en modo INLINE
+     */
+    SCORE_INLINE,
+    
+    /**
+     * Aprobar la transferencia sin evaluar las reglas asíncronas
+     */
+    DROP
+}
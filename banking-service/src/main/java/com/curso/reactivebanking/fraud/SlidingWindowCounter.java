@@ -0,0 +1,79 @@
+package com.curso.reactivebanking.fraud;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador de eventos en una ventana deslizante de segundos, sin bloqueos.
+ * Es un anillo de cubetas de un segundo; cada cubeta guarda en un solo long el segundo al que
+ * pertenece (bits altos) y su contador (bits bajos), de modo que reutilizar una cubeta de un
+ * segundo anterior y sumarle el evento es un único compareAndSet.
+ */
+public class SlidingWindowCounter {
+    
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    
+    private final AtomicLongArray buckets;
+    private final int windowSeconds;
+    
+    public SlidingWindowCounter(int windowSeconds) {
+        this.windowSeconds = windowSeconds;
+        this.buckets = new AtomicLongArray(windowSeconds);
+    }
+    
+    /**
+     * Registra un evento en el segundo indicado (segundos desde epoch).
+     * Los eventos más antiguos que la ventana se ignoran
+     */
+    public void record(long epochSecond) {
+        int index = (int) Math.floorMod(epochSecond, (long) windowSeconds);
+        while (true) {
+            long current = buckets.get(index);
+            long bucketSecond = current >>> COUNT_BITS;
+            long updated;
+            if (bucketSecond == epochSecond) {
+                if ((current & COUNT_MASK) == COUNT_MASK) {
+                    return;
+                }
+                updated = current + 1;
+            } else if (bucketSecond < epochSecond) {
+                updated = (epochSecond << COUNT_BITS) | 1;
+            } else {
+                // La cubeta ya pertenece a un segundo posterior: el evento quedó fuera de la ventana
+                return;
+            }
+            if (buckets.compareAndSet(index, current, updated)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Eventos registrados en la ventana que termina en el segundo indicado (incluido)
+     */
+    public long count(long nowEpochSecond) {
+        long oldest = nowEpochSecond - windowSeconds;
+        long total = 0;
+        for (int i = 0; i < windowSeconds; i++) {
+            long bucket = buckets.get(i);
+            long bucketSecond = bucket >>> COUNT_BITS;
+            if (bucketSecond > oldest && bucketSecond <= nowEpochSecond) {
+                total += bucket & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Verdadero si no hay eventos dentro de la ventana que termina en el segundo indicado
+     */
+    public boolean isIdle(long nowEpochSecond) {
+        long oldest = nowEpochSecond - windowSeconds;
+        for (int i = 0; i < windowSeconds; i++) {
+            if ((buckets.get(i) >>> COUNT_BITS) > oldest) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,47 @@
+package com.curso.reactivebanking.fraud;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.model.Transaction;
+
+import java.util.Optional;
+
+/**
+ * Regla: Transacciones en horarios inusuales son sospechosas
+ */
+@Component
+public class SuspiciousHoursRule implements FraudRule {
+    
+    @Value("${banking.fraud.suspicious-hours.start:22}")
+    private int suspiciousHoursStart;
+    
+    @Value("${banking.fraud.suspicious-hours.end:6}")
+    private int suspiciousHoursEnd;
+    
+    @Override
+    public String name() {
+        return "suspicious-hours";
+    }
+    
+    @Override
+    public int cost() {
+        return 1;
+    }
+    
+    @Override
+    public boolean isSynchronous() {
+        return true;
+    }
+    
+    @Override
+    public Optional<FraudFinding> check(Transaction transaction) {
+        int hour = transaction.getTimestamp().getHour();
+        
+        // Horario sospechoso: 22:00 - 06:00
+        if (hour >= suspiciousHoursStart || hour <= suspiciousHoursEnd) {
+            return Optional.of(FraudFinding.review(name(), FraudReason.SUSPICIOUS_HOUR, hour));
+        }
+        return Optional.empty();
+    }
+}
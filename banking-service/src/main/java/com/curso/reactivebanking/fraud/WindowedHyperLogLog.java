@@ -0,0 +1,112 @@
+package com.curso.reactivebanking.fraud;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Estimador HyperLogLog de valores distintos en una ventana deslizante, de tamaño fijo.
+ * La ventana se divide en cubetas consecutivas (slots); cada cubeta tiene sus propios registros
+ * y se reutiliza, vaciándola, cuando empieza un slot nuevo. La estimación une los registros de
+ * las cubetas dentro de la ventana tomando el máximo de cada uno.
+ * Los métodos están sincronizados por instancia; la contención es la de una sola cuenta.
+ */
+public class WindowedHyperLogLog {
+    
+    private final int precision;
+    private final int registerCount;
+    private final double alpha;
+    private final byte[][] registers;
+    private final long[] bucketSlots;
+    
+    /**
+     * @param precision bits del hash que eligen el registro: 2^precision registros por cubeta
+     *                  y un error típico de 1.04 / sqrt(2^precision)
+     * @param buckets   cubetas de la ventana
+     */
+    public WindowedHyperLogLog(int precision, int buckets) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("La precisión debe estar entre 4 y 16: " + precision);
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+        this.alpha = 0.7213 / (1 + 1.079 / registerCount);
+        this.registers = new byte[buckets][registerCount];
+        this.bucketSlots = new long[buckets];
+        Arrays.fill(bucketSlots, Long.MIN_VALUE);
+    }
+    
+    /**
+     * Registra el valor en el slot indicado. Los valores de slots que ya salieron de la ventana se ignoran
+     */
+    public synchronized void add(UUID value, long slot) {
+        int index = (int) Math.floorMod(slot, (long) bucketSlots.length);
+        if (bucketSlots[index] > slot) {
+            return;
+        }
+        if (bucketSlots[index] < slot) {
+            Arrays.fill(registers[index], (byte) 0);
+            bucketSlots[index] = slot;
+        }
+        
+        long hash = hash(value);
+        int register = (int) (hash >>> (64 - precision));
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (registers[index][register] < rank) {
+            registers[index][register] = rank;
+        }
+    }
+    
+    /**
+     * Valores distintos estimados en la ventana que termina en el slot indicado (incluido)
+     */
+    public synchronized long estimate(long slot) {
+        long oldest = slot - bucketSlots.length;
+        double sum = 0;
+        int zeros = 0;
+        for (int register = 0; register < registerCount; register++) {
+            byte max = 0;
+            for (int bucket = 0; bucket < bucketSlots.length; bucket++) {
+                if (bucketSlots[bucket] > oldest && bucketSlots[bucket] <= slot && registers[bucket][register] > max) {
+                    max = registers[bucket][register];
+                }
+            }
+            if (max == 0) {
+                zeros++;
+            }
+            sum += 1.0 / (1L << max);
+        }
+        
+        double estimate = alpha * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            // Corrección para cardinalidades pequeñas (linear counting)
+            estimate = registerCount * Math.log((double) registerCount / zeros);
+        }
+        return Math.round(estimate);
+    }
+    
+    /**
+     * Verdadero si no hay valores dentro de la ventana que termina en el slot indicado
+     */
+    public synchronized boolean isIdle(long slot) {
+        long oldest = slot - bucketSlots.length;
+        for (long bucketSlot : bucketSlots) {
+            if (bucketSlot > oldest) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Mezcla de los 128 bits del UUID (finalizador de MurmurHash3), para no depender de que sean aleatorios
+     */
+    private static long hash(UUID value) {
+        long hash = value.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ value.getLeastSignificantBits();
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
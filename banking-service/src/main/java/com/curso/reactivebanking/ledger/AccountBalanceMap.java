@@ -0,0 +1,172 @@
+package com.curso.reactivebanking.ledger;
+
+import java.util.UUID;
+import java.util.function.IntConsumer;
+
+/**
+ * Mapa primitivo de direccionamiento abierto (sondeo lineal) de UUID de cuenta a balance
+ * en unidades menores (céntimos). Las claves se guardan como dos long y los balances como long,
+ * sin objetos por entrada.
+ * Lleva además el registro de las entradas modificadas pendientes de volcar a la base de datos.
+ * No es thread-safe: el acceso se sincroniza desde InMemoryBalanceLedger.
+ */
+public class AccountBalanceMap {
+    
+    private static final float MAX_LOAD_FACTOR = 0.6f;
+    
+    private long[] keyMostSignificant;
+    private long[] keyLeastSignificant;
+    private long[] balances;
+    private boolean[] used;
+    private boolean[] dirty;
+    private int[] dirtyQueue;
+    private int dirtyCount;
+    private int size;
+    private int mask;
+    
+    public AccountBalanceMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+    
+    /**
+     * Posición de la cuenta en el mapa, o -1 si no existe
+     */
+    public int indexOf(UUID accountId) {
+        long msb = accountId.getMostSignificantBits();
+        long lsb = accountId.getLeastSignificantBits();
+        int index = slot(msb, lsb);
+        while (used[index]) {
+            if (keyMostSignificant[index] == msb && keyLeastSignificant[index] == lsb) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * Inserta o reemplaza el balance de una cuenta y devuelve su posición
+     */
+    public int put(UUID accountId, long balance) {
+        int index = indexOf(accountId);
+        if (index >= 0) {
+            balances[index] = balance;
+            return index;
+        }
+        
+        if (size + 1 > (int) (balances.length * MAX_LOAD_FACTOR)) {
+            resize(balances.length * 2);
+        }
+        
+        long msb = accountId.getMostSignificantBits();
+        long lsb = accountId.getLeastSignificantBits();
+        index = slot(msb, lsb);
+        while (used[index]) {
+            index = (index + 1) & mask;
+        }
+        used[index] = true;
+        keyMostSignificant[index] = msb;
+        keyLeastSignificant[index] = lsb;
+        balances[index] = balance;
+        size++;
+        return index;
+    }
+    
+    public long balanceAt(int index) {
+        return balances[index];
+    }
+    
+    public void addAt(int index, long delta) {
+        balances[index] += delta;
+    }
+    
+    public UUID keyAt(int index) {
+        return new UUID(keyMostSignificant[index], keyLeastSignificant[index]);
+    }
+    
+    /**
+     * Marca la entrada como pendiente de volcado
+     */
+    public void markDirty(int index) {
+        if (!dirty[index]) {
+            dirty[index] = true;
+            dirtyQueue[dirtyCount++] = index;
+        }
+    }
+    
+    /**
+     * Entrega las posiciones pendientes de volcado y las marca como limpias
+     */
+    public int drainDirty(IntConsumer consumer) {
+        int drained = dirtyCount;
+        for (int i = 0; i < drained; i++) {
+            int index = dirtyQueue[i];
+            dirty[index] = false;
+            consumer.accept(index);
+        }
+        dirtyCount = 0;
+        return drained;
+    }
+    
+    public int dirtyCount() {
+        return dirtyCount;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    private int slot(long msb, long lsb) {
+        long hash = msb ^ lsb;
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+        return (int) hash & mask;
+    }
+    
+    private void resize(int newCapacity) {
+        long[] oldMsb = keyMostSignificant;
+        long[] oldLsb = keyLeastSignificant;
+        long[] oldBalances = balances;
+        boolean[] oldUsed = used;
+        boolean[] oldDirty = dirty;
+        
+        allocate(newCapacity);
+        for (int i = 0; i < oldBalances.length; i++) {
+            if (oldUsed[i]) {
+                int index = slot(oldMsb[i], oldLsb[i]);
+                while (used[index]) {
+                    index = (index + 1) & mask;
+                }
+                used[index] = true;
+                keyMostSignificant[index] = oldMsb[i];
+                keyLeastSignificant[index] = oldLsb[i];
+                balances[index] = oldBalances[i];
+                size++;
+                if (oldDirty[i]) {
+                    markDirty(index);
+                }
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        keyMostSignificant = new long[capacity];
+        keyLeastSignificant = new long[capacity];
+        balances = new long[capacity];
+        used = new boolean[capacity];
+        dirty = new boolean[capacity];
+        dirtyQueue = new int[capacity];
+        dirtyCount = 0;
+        size = 0;
+        mask = capacity - 1;
+    }
+    
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * MAX_LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
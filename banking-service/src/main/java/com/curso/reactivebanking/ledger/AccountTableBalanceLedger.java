@@ -0,0 +1,272 @@
+package com.curso.reactivebanking.ledger;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.exception.AccountNotFoundException;
+import com.curso.reactivebanking.exception.InsufficientFundsException;
+import com.curso.reactivebanking.model.Account;
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.repository.AccountCache;
+import com.curso.reactivebanking.repository.AccountRepository;
+import com.curso.reactivebanking.repository.TransferBatchRepository;
+import com.curso.reactivebanking.service.PipelineMetrics;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Almacén de balances por defecto: cada transferencia actualiza la columna balance de la tabla accounts
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "banking.ledger.mode", havingValue = "accounts", matchIfMissing = true)
+public class AccountTableBalanceLedger implements BalanceLedger {
+    
+    private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
+    private final TransferBatchRepository transferBatchRepository;
+    private final HotAccountStripes hotAccountStripes;
+    private final PipelineMetrics pipelineMetrics;
+    
+    @Value("${banking.transfer.execution-mode:STANDARD}")
+    private TransferExecutionMode executionMode;
+    
+    @Override
+    public Mono<Void> validateTransfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+        if (executionMode == TransferExecutionMode.GUARDED && !hotAccountStripes.isStriped(fromAccountId)) {
+            return validateTransferGuarded(fromAccountId, toAccountId, amount);
+        }
+        return validateAccountsExist(fromAccountId, toAccountId)
+            .transform(pipelineMetrics.stage("account-validation"))
+            .then(validateSufficientFunds(fromAccountId, amount)
+                .transform(pipelineMetrics.stage("funds-check")));
+    }
+    
+    @Override
+    public Mono<Boolean> applyTransfer(Transaction transaction) {
+        if (executionMode == TransferExecutionMode.GUARDED) {
+            return applyTransferGuarded(transaction);
+        }
+        
+        return updateBalancesInLockOrder(transaction,
+                // Debitar cuenta origen
+                hotAccountStripes.isStriped(transaction.getFromAccountId())
+                    ? debitStripes(transaction)
+                    : accountRepository.updateBalanceById(
+                        transaction.getFromAccountId(),
+                        transaction.getAmount().negate()
+                    ),
+                // Acreditar cuenta destino
+                credit(transaction.getToAccountId(), transaction.getAmount())
+            )
+            .map(tuple -> tuple.getT1() > 0 && tuple.getT2() > 0)
+            .flatMap(applied -> invalidateAccounts(transaction).thenReturn(applied));
+    }
+    
+    /**
+     * Las cuentas sin franjas se actualizan en una sentencia por lotes; las cuentas con franjas
+     * se acreditan en una franja o se debitan con consolidación, en el mismo orden de ID
+     */
+    @Override
+    public Mono<Void> applyBatch(List<Transaction> transactions, Map<UUID, BigDecimal> deltas) {
+        Map<UUID, BigDecimal> plainDeltas = new TreeMap<>();
+        Map<UUID, BigDecimal> stripedDeltas = new TreeMap<>();
+        deltas.forEach((accountId, delta) ->
+            (hotAccountStripes.isStriped(accountId) ? stripedDeltas : plainDeltas).put(accountId, delta));
+        
+        return transferBatchRepository.applyBalanceDeltas(plainDeltas)
+            .flatMap(updated -> updated < plainDeltas.size() ? Mono.just(false) : applyStripedDeltas(stripedDeltas))
+            .flatMap(applied -> {
+                if (!applied) {
+                    return Mono.error(new OptimisticLockingFailureException(
+                        "Los balances cambiaron durante la transferencia por lotes"));
+                }
+                return accountCache.invalidate(deltas.keySet());
+            });
+    }
+    
+    @Override
+    public Mono<Map<UUID, BigDecimal>> getBalances(Collection<UUID> accountIds) {
+        return accountRepository.findAllById(accountIds)
+            .collectMap(Account::getId, Account::getBalance)
+            .flatMap(balances -> hotAccountStripes.stripeTotals(balances.keySet())
+                .map(stripeTotals -> {
+                    stripeTotals.forEach((accountId, total) -> balances.merge(accountId, total, BigDecimal::add));
+                    return balances;
+                }));
+    }
+    
+    @Override
+    public Mono<BigDecimal> getBalance(UUID accountId) {
+        return accountCache.findById(accountId)
+            .flatMap(hotAccountStripes::aggregate)
+            .map(Account::getBalance);
+    }
+    
+    @Override
+    public Mono<Boolean> hasSufficientFunds(UUID accountId, BigDecimal amount) {
+        if (hotAccountStripes.isStriped(accountId)) {
+            return getBalance(accountId)
+                .map(balance -> balance.compareTo(amount) >= 0);
+        }
+        return accountRepository.hasSufficientFunds(accountId, amount);
+    }
+    
+    @Override
+    public Mono<Account> refreshBalance(Account account) {
+        return hotAccountStripes.aggregate(account);
+    }
+    
+    @Override
+    public Mono<Void> lockForUpdate(UUID accountId) {
+        return hotAccountStripes.lock(accountId);
+    }
+    
+    @Override
+    public Mono<Void> accountSaved(Account account) {
+        return hotAccountStripes.accountSaved(account);
+    }
+    
+    /**
+     * Acredita en una franja si la cuenta está repartida o en la fila de accounts si no
+     */
+    private Mono<Integer> credit(UUID accountId, BigDecimal amount) {
+        if (hotAccountStripes.isStriped(accountId)) {
+            return hotAccountStripes.credit(accountId, amount);
+        }
+        return accountRepository.updateBalanceById(accountId, amount);
+    }
+    
+    /**
+     * Debita la cuenta origen repartida en franjas. Si otro débito concurrente agotó los fondos
+     * falla con InsufficientFundsException dentro de la transacción, para que el rollback deshaga
+     * el crédito cuando el orden de bloqueo lo aplicó antes
+     */
+    private Mono<Integer> debitStripes(Transaction transaction) {
+        return hotAccountStripes.debit(transaction.getFromAccountId(), transaction.getAmount())
+            .filter(debited -> debited > 0)
+            .switchIfEmpty(Mono.error(() -> new InsufficientFundsException(
+                transaction.getFromAccountId(), transaction.getAmount())));
+    }
+    
+    /**
+     * Aplica secuencialmente los deltas de las cuentas con franjas; false si algún débito no tiene fondos
+     */
+    private Mono<Boolean> applyStripedDeltas(Map<UUID, BigDecimal> stripedDeltas) {
+        return Flux.fromIterable(stripedDeltas.entrySet())
+            .concatMap(delta -> delta.getValue().signum() < 0
+                ? hotAccountStripes.debit(delta.getKey(), delta.getValue().negate())
+                : hotAccountStripes.credit(delta.getKey(), delta.getValue()))
+            .all(updated -> updated > 0);
+    }
+    
+    /**
+     * Valida existencia de ambas cuentas y fondos con una única consulta condicional.
+     * Solo si falla se consulta de nuevo para distinguir el motivo
+     */
+    private Mono<Void> validateTransferGuarded(UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+        return accountRepository.countTransferReadyAccounts(fromAccountId, toAccountId, amount)
+            .flatMap(readyAccounts -> {
+                if (readyAccounts == 2) {
+                    return Mono.empty();
+                }
+                return validateAccountsExist(fromAccountId, toAccountId)
+                    .then(Mono.error(new InsufficientFundsException(fromAccountId, amount)));
+            });
+    }
+    
+    /**
+     * Valida que ambas cuentas existan
+     */
+    private Mono<Void> validateAccountsExist(UUID fromAccountId, UUID toAccountId) {
+        return Mono.zip(
+                accountCache.existsById(fromAccountId),
+                accountCache.existsById(toAccountId)
+            )
+            .flatMap(tuple -> {
+                boolean fromExists = tuple.getT1();
+                boolean toExists = tuple.getT2();
+                
+                if (!fromExists) {
+                    return Mono.error(new AccountNotFoundException(fromAccountId));
+                }
+                if (!toExists) {
+                    return Mono.error(new AccountNotFoundException(toAccountId));
+                }
+                
+                return Mono.empty();
+            });
+    }
+    
+    /**
+     * Valida que la cuenta tenga fondos suficientes
+     */
+    private Mono<Void> validateSufficientFunds(UUID accountId, BigDecimal amount) {
+        return hasSufficientFunds(accountId, amount)
+            .flatMap(hasFunds -> {
+                if (!hasFunds) {
+                    return Mono.error(new InsufficientFundsException(accountId, amount));
+                }
+                return Mono.empty();
+            });
+    }
+    
+    /**
+     * Ejecuta la transferencia con un débito condicionado al balance.
+     * Si el débito no actualiza ninguna fila la transferencia falla y se revierte la transacción completa
+     */
+    private Mono<Boolean> applyTransferGuarded(Transaction transaction) {
+        return updateBalancesInLockOrder(transaction,
+                hotAccountStripes.isStriped(transaction.getFromAccountId())
+                    ? debitStripes(transaction)
+                    : accountRepository.debitIfSufficientFunds(transaction.getFromAccountId(), transaction.getAmount()),
+                credit(transaction.getToAccountId(), transaction.getAmount())
+            )
+            .flatMap(tuple -> invalidateAccounts(transaction).thenReturn(tuple))
+            .flatMap(tuple -> {
+                if (tuple.getT1() == 0) {
+                    return Mono.error(new InsufficientFundsException(
+                        transaction.getFromAccountId(), transaction.getAmount()));
+                }
+                if (tuple.getT2() == 0) {
+                    return Mono.error(new AccountNotFoundException(transaction.getToAccountId()));
+                }
+                return Mono.just(true);
+            });
+    }
+    
+    /**
+     * Descarta de la caché las filas de ambas cuentas tras actualizar sus balances
+     */
+    private Mono<Void> invalidateAccounts(Transaction transaction) {
+        return accountCache.invalidate(List.of(transaction.getFromAccountId(), transaction.getToAccountId()));
+    }
+    
+    /**
+     * Aplica débito y crédito de forma secuencial en orden ascendente de ID de cuenta.
+     * Un orden de bloqueo fijo evita interbloqueos entre transferencias opuestas (A->B y B->A).
+     * Devuelve las filas actualizadas como (débito, crédito)
+     */
+    private Mono<Tuple2<Integer, Integer>> updateBalancesInLockOrder(Transaction transaction,
+                                                                    Mono<Integer> debit, Mono<Integer> credit) {
+        if (transaction.getFromAccountId().compareTo(transaction.getToAccountId()) < 0) {
+            return debit.flatMap(debited -> credit.map(credited -> Tuples.of(debited, credited)));
+        }
+        return credit.flatMap(credited -> debit.map(debited -> Tuples.of(debited, credited)));
+    }
+}
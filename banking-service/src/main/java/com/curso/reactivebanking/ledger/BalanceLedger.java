@@ -0,0 +1,72 @@
+package com.curso.reactivebanking.ledger;
+
+import com.curso.reactivebanking.model.Account;
+import com.curso.reactivebanking.model.Transaction;
+
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Almacén de balances de las cuentas.
+ * La implementación activa se elige con banking.ledger.mode
+ */
+public interface BalanceLedger {
+    
+    /**
+     * Valida que ambas cuentas existan y que la cuenta origen tenga fondos suficientes.
+     * Falla con AccountNotFoundException o InsufficientFundsException
+     */
+    Mono<Void> validateTransfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount);
+    
+    /**
+     * Mueve el monto de la transacción entre sus cuentas.
+     * Devuelve false si los balances no pudieron actualizarse.
+     * Si la transacción que la contiene no se confirma, la transferencia debe quedar deshecha:
+     * los almacenes no transaccionales la revierten ellos mismos
+     */
+    Mono<Boolean> applyTransfer(Transaction transaction);
+    
+    /**
+     * Aplica de forma atómica un lote de transferencias aprobadas junto con sus deltas netos por cuenta.
+     * Falla con OptimisticLockingFailureException si alguna cuenta quedaría en negativo
+     */
+    Mono<Void> applyBatch(List<Transaction> transactions, Map<UUID, BigDecimal> deltas);
+    
+    /**
+     * Obtiene los balances de las cuentas indicadas; las cuentas inexistentes no aparecen
+     */
+    Mono<Map<UUID, BigDecimal>> getBalances(Collection<UUID> accountIds);
+    
+    /**
+     * Obtiene el balance de una cuenta; vacío si la cuenta no existe
+     */
+    Mono<BigDecimal> getBalance(UUID accountId);
+    
+    /**
+     * Verifica si una cuenta tiene fondos suficientes
+     */
+    Mono<Boolean> hasSufficientFunds(UUID accountId, BigDecimal amount);
+    
+    /**
+     * Devuelve la cuenta con el balance vigente según este almacén
+     */
+    Mono<Account> refreshBalance(Account account);
+    
+    /**
+     * Bloquea hasta el fin de la transacción en curso lo que accountSaved va a sobrescribir,
+     * para que ningún cambio concurrente se confirme entre el guardado de la cuenta y accountSaved
+     */
+    default Mono<Void> lockForUpdate(UUID accountId) {
+        return Mono.empty();
+    }
+    
+    /**
+     * Notifica que una cuenta se creó o se actualizó desde la API
+     */
+    Mono<Void> accountSaved(Account account);
+}
@@ -0,0 +1,161 @@
+package com.curso.reactivebanking.ledger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.model.Account;
+import com.curso.reactivebanking.repository.AccountRepository;
+import com.curso.reactivebanking.repository.AccountStripeRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reparte el balance de las cuentas muy concurridas (banking.ledger.striping.accounts) en
+ * banking.ledger.striping.stripes franjas, para que los créditos no compitan por la misma fila.
+ * El balance de una cuenta con franjas es accounts.balance más la suma de sus franjas.
+ * Los créditos van a la siguiente franja por turno rotatorio; los débitos prueban cada franja y la
+ * fila principal, y si ninguna cubre el monto consolidan las franjas en la fila principal.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banking.ledger.mode", havingValue = "accounts", matchIfMissing = true)
+public class HotAccountStripes implements SmartInitializingSingleton {
+    
+    private final AccountStripeRepository stripeRepository;
+    private final AccountRepository accountRepository;
+    private final int stripeCount;
+    private final Map<UUID, AtomicInteger> nextStripe = new HashMap<>();
+    private final Counter consolidations;
+    
+    public HotAccountStripes(AccountStripeRepository stripeRepository,
+                             AccountRepository accountRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${banking.ledger.striping.accounts:}") List<UUID> stripedAccounts,
+                             @Value("${banking.ledger.striping.stripes:8}") int stripeCount) {
+        this.stripeRepository = stripeRepository;
+        this.accountRepository = accountRepository;
+        this.stripeCount = stripeCount;
+        for (UUID accountId : stripedAccounts) {
+            nextStripe.put(accountId, new AtomicInteger());
+        }
+        
+        this.consolidations = Counter.builder("banking.ledger.stripes.consolidations")
+            .description("Débitos que necesitaron consolidar las franjas de una cuenta")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Crea las franjas que falten una vez inicializada la base de datos
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (nextStripe.isEmpty()) {
+            return;
+        }
+        
+        Flux.fromIterable(nextStripe.keySet())
+            .concatMap(accountId -> Flux.range(0, stripeCount)
+                .concatMap(stripe -> stripeRepository.createIfMissing(accountId, stripe)))
+            .then()
+            .block();
+        log.info("Franjas de balance activas: {} cuentas x {} franjas", nextStripe.size(), stripeCount);
+    }
+    
+    public boolean isStriped(UUID accountId) {
+        return nextStripe.containsKey(accountId);
+    }
+    
+    /**
+     * Acredita el monto en la siguiente franja de la cuenta
+     */
+    public Mono<Integer> credit(UUID accountId, BigDecimal amount) {
+        return stripeRepository.credit(accountId, nextStripe(accountId), amount)
+            .map(Long::intValue);
+    }
+    
+    /**
+     * Debita el monto de la primera franja que lo cubra, empezando por una franja rotatoria,
+     * o de la fila principal. Si ninguna lo cubre por separado consolida las franjas y reintenta
+     * sobre la fila principal. Devuelve 1 si el débito se aplicó y 0 si no hay fondos
+     */
+    public Mono<Integer> debit(UUID accountId, BigDecimal amount) {
+        int start = nextStripe(accountId);
+        return Flux.range(0, stripeCount)
+            .concatMap(i -> stripeRepository.debitIfCovered(accountId, (start + i) % stripeCount, amount))
+            .filter(updated -> updated > 0)
+            .next()
+            .map(Long::intValue)
+            .switchIfEmpty(accountRepository.debitIfSufficientFunds(accountId, amount)
+                .filter(updated -> updated > 0))
+            .switchIfEmpty(Mono.defer(() -> {
+                consolidations.increment();
+                return stripeRepository.consolidate(accountId)
+                    .doOnNext(total -> log.debug("Consolidadas franjas de {}: {}", accountId, total))
+                    .then(accountRepository.debitIfSufficientFunds(accountId, amount));
+            }));
+    }
+    
+    /**
+     * Suma de las franjas de las cuentas indicadas que tienen franjas
+     */
+    public Mono<Map<UUID, BigDecimal>> stripeTotals(Collection<UUID> accountIds) {
+        List<UUID> striped = accountIds.stream()
+            .filter(this::isStriped)
+            .toList();
+        return stripeRepository.sumByAccount(striped);
+    }
+    
+    /**
+     * Devuelve la cuenta con el balance agregado de la fila principal y sus franjas
+     */
+    public Mono<Account> aggregate(Account account) {
+        if (!isStriped(account.getId())) {
+            return Mono.just(account);
+        }
+        return stripeRepository.sumByAccount(List.of(account.getId()))
+            .map(totals -> {
+                account.setBalance(account.getBalance().add(totals.getOrDefault(account.getId(), BigDecimal.ZERO)));
+                return account;
+            });
+    }
+    
+    /**
+     * Bloquea las franjas de la cuenta hasta el fin de la transacción, para que ningún crédito
+     * se confirme entre el guardado del balance y accountSaved y se pierda al ponerlas a cero
+     */
+    public Mono<Void> lock(UUID accountId) {
+        if (!isStriped(accountId)) {
+            return Mono.empty();
+        }
+        return stripeRepository.lockAll(accountId).then();
+    }
+    
+    /**
+     * Un balance fijado desde la API es el balance total: las franjas vuelven a cero.
+     * Debe ejecutarse en la misma transacción que el guardado, con las franjas bloqueadas con lock
+     */
+    public Mono<Void> accountSaved(Account account) {
+        if (!isStriped(account.getId())) {
+            return Mono.empty();
+        }
+        return stripeRepository.resetAll(account.getId()).then();
+    }
+    
+    private int nextStripe(UUID accountId) {
+        return Math.floorMod(nextStripe.get(accountId).getAndIncrement(), stripeCount);
+    }
+}
@@ -0,0 +1,436 @@
+package com.curso.reactivebanking.ledger;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.curso.reactivebanking.exception.AccountNotFoundException;
+import com.curso.reactivebanking.exception.InsufficientFundsException;
+import com.curso.reactivebanking.model.Account;
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.repository.AccountRepository;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Almacén de balances en memoria con escritura diferida (write-behind).
+ * Los balances se mantienen como long en unidades menores dentro de un mapa primitivo;
+ * las transferencias se validan y aplican en memoria y los cambios se vuelcan a la tabla
+ * accounts por lotes cada banking.ledger.memory.flush-interval.
+ * Como cota de durabilidad, nunca se confirman más de banking.ledger.memory.max-pending-changes
+ * cambios sin volcar: al alcanzarla las transferencias esperan al siguiente volcado.
+ * Dentro de una transacción los débitos se aplican al momento y se deshacen si esta no se confirma;
+ * los créditos solo se aplican tras la confirmación, para que nadie gaste fondos que aún pueden
+ * desaparecer con un rollback.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banking.ledger.mode", havingValue = "memory")
+public class InMemoryBalanceLedger implements BalanceLedger, SmartInitializingSingleton, DisposableBean {
+    
+    private static final int SCALE = 2;
+    private static final long NO_ACCOUNT = Long.MIN_VALUE;
+    private static final Duration EMIT_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(30);
+    
+    private final AccountRepository accountRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final Duration flushInterval;
+    private final long maxPendingChanges;
+    
+    private final AccountBalanceMap balances = new AccountBalanceMap(1024);
+    private final StampedLock lock = new StampedLock();
+    private final Sinks.Many<Long> flushRequests = Sinks.many().multicast().directBestEffort();
+    private final Sinks.Many<Long> flushedVersions = Sinks.many().replay().latest();
+    
+    // Protegidos por lock
+    private long appliedVersion;
+    
+    private volatile long flushedVersion;
+    private Disposable flusher;
+    
+    public InMemoryBalanceLedger(AccountRepository accountRepository,
+                                 TransactionalOperator transactionalOperator,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${banking.ledger.memory.flush-interval:100ms}") Duration flushInterval,
+                                 @Value("${banking.ledger.memory.max-pending-changes:10000}") long maxPendingChanges) {
+        this.accountRepository = accountRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.flushInterval = flushInterval;
+        this.maxPendingChanges = maxPendingChanges;
+        
+        Gauge.builder("banking.ledger.memory.pending.changes", this, ledger -> ledger.pendingChanges())
+            .description("Cambios de balance confirmados pendientes de volcar a la base de datos")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Carga los balances una vez inicializada la base de datos y arranca el volcado periódico
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        accountRepository.findAll()
+            .doOnNext(account -> {
+                long stamp = lock.writeLock();
+                try {
+                    balances.put(account.getId(), toMinorUnits(account.getBalance()));
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+            })
+            .then()
+            .block();
+        log.info("Balances cargados en memoria: {} cuentas", balances.size());
+        
+        flusher = Flux.merge(Flux.interval(flushInterval), flushRequests.asFlux())
+            .onBackpressureDrop()
+            .concatMap(tick -> flush(), 1)
+            .subscribe();
+    }
+    
+    @Override
+    public void destroy() {
+        if (flusher != null) {
+            flusher.dispose();
+        }
+        flush().block(SHUTDOWN_FLUSH_TIMEOUT);
+        log.info("Balances en memoria volcados antes del apagado");
+    }
+    
+    @Override
+    public Mono<Void> validateTransfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+        long fromBalance = readBalance(fromAccountId);
+        if (fromBalance == NO_ACCOUNT) {
+            return Mono.error(new AccountNotFoundException(fromAccountId));
+        }
+        if (readBalance(toAccountId) == NO_ACCOUNT) {
+            return Mono.error(new AccountNotFoundException(toAccountId));
+        }
+        if (fromBalance < toMinorUnits(amount)) {
+            return Mono.error(new InsufficientFundsException(fromAccountId, amount));
+        }
+        return Mono.empty();
+    }
+    
+    @Override
+    public Mono<Boolean> applyTransfer(Transaction transaction) {
+        long amount = toMinorUnits(transaction.getAmount());
+        long version;
+        
+        long stamp = lock.writeLock();
+        try {
+            int from = balances.indexOf(transaction.getFromAccountId());
+            int to = balances.indexOf(transaction.getToAccountId());
+            if (from < 0) {
+                return Mono.error(new AccountNotFoundException(transaction.getFromAccountId()));
+            }
+            if (to < 0) {
+                return Mono.error(new AccountNotFoundException(transaction.getToAccountId()));
+            }
+            if (balances.balanceAt(from) < amount) {
+                return Mono.error(new InsufficientFundsException(
+                    transaction.getFromAccountId(), transaction.getAmount()));
+            }
+            
+            balances.addAt(from, -amount);
+            balances.markDirty(from);
+            version = ++appliedVersion;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        
+        return onCompletion(
+                () -> addAll(List.of(transaction.getToAccountId()), new long[] {amount}),
+                () -> {
+                    addAll(List.of(transaction.getFromAccountId()), new long[] {amount});
+                    log.warn("Transferencia {} revertida en memoria", transaction.getId());
+                })
+            .then(awaitDurability(version))
+            .thenReturn(true);
+    }
+    
+    @Override
+    public Mono<Void> applyBatch(List<Transaction> transactions, Map<UUID, BigDecimal> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.empty();
+        }
+        
+        List<UUID> accountIds = new ArrayList<>(deltas.keySet());
+        int[] indexes = new int[deltas.size()];
+        long[] amounts = new long[deltas.size()];
+        long version;
+        
+        long stamp = lock.writeLock();
+        try {
+            int i = 0;
+            for (Map.Entry<UUID, BigDecimal> delta : deltas.entrySet()) {
+                indexes[i] = balances.indexOf(delta.getKey());
+                amounts[i] = toMinorUnits(delta.getValue());
+                if (indexes[i] < 0 || balances.balanceAt(indexes[i]) + amounts[i] < 0) {
+                    return Mono.error(new OptimisticLockingFailureException(
+                        "Los balances cambiaron durante la transferencia por lotes"));
+                }
+                i++;
+            }
+            for (i = 0; i < indexes.length; i++) {
+                if (amounts[i] < 0) {
+                    balances.addAt(indexes[i], amounts[i]);
+                    balances.markDirty(indexes[i]);
+                }
+            }
+            version = ++appliedVersion;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        
+        long[] credits = new long[amounts.length];
+        long[] reverse = new long[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            credits[i] = Math.max(amounts[i], 0);
+            reverse[i] = Math.max(-amounts[i], 0);
+        }
+        return onCompletion(
+                () -> addAll(accountIds, credits),
+                () -> {
+                    addAll(accountIds, reverse);
+                    log.warn("Lote de {} transferencias revertido en memoria", transactions.size());
+                })
+            .then(awaitDurability(version));
+    }
+    
+    @Override
+    public Mono<Map<UUID, BigDecimal>> getBalances(Collection<UUID> accountIds) {
+        Map<UUID, BigDecimal> result = new HashMap<>();
+        for (UUID accountId : accountIds) {
+            long balance = readBalance(accountId);
+            if (balance != NO_ACCOUNT) {
+                result.put(accountId, fromMinorUnits(balance));
+            }
+        }
+        return Mono.just(result);
+    }
+    
+    @Override
+    public Mono<BigDecimal> getBalance(UUID accountId) {
+        long balance = readBalance(accountId);
+        return balance == NO_ACCOUNT ? Mono.empty() : Mono.just(fromMinorUnits(balance));
+    }
+    
+    @Override
+    public Mono<Boolean> hasSufficientFunds(UUID accountId, BigDecimal amount) {
+        long balance = readBalance(accountId);
+        return balance == NO_ACCOUNT ? Mono.empty() : Mono.just(balance >= toMinorUnits(amount));
+    }
+    
+    @Override
+    public Mono<Account> refreshBalance(Account account) {
+        long balance = readBalance(account.getId());
+        if (balance != NO_ACCOUNT) {
+            account.setBalance(fromMinorUnits(balance));
+        }
+        return Mono.just(account);
+    }
+    
+    /**
+     * Un volcado en curso pudo leer el balance anterior y escribirlo después que la API:
+     * la cuenta queda pendiente para que el siguiente volcado escriba el balance nuevo
+     */
+    @Override
+    public Mono<Void> accountSaved(Account account) {
+        long stamp = lock.writeLock();
+        try {
+            balances.markDirty(balances.put(account.getId(), toMinorUnits(account.getBalance())));
+            appliedVersion++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return Mono.empty();
+    }
+    
+    /**
+     * Registra qué hacer cuando termine la transacción en curso: commit aplica los créditos retenidos
+     * y revert deshace los débitos si termina sin confirmarse (error, rollback o cancelación).
+     * Fuera de una transacción los créditos se aplican al momento
+     */
+    private Mono<Void> onCompletion(Runnable commit, Runnable revert) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .map(synchronization -> {
+                synchronization.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCompletion(int status) {
+                        return Mono.fromRunnable(status == STATUS_COMMITTED ? commit : revert);
+                    }
+                });
+                return true;
+            })
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .switchIfEmpty(Mono.fromRunnable(commit))
+            .then();
+    }
+    
+    /**
+     * Suma los deltas a las cuentas indicadas y las marca pendientes de volcado
+     */
+    private void addAll(List<UUID> accountIds, long[] amounts) {
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < amounts.length; i++) {
+                if (amounts[i] == 0) {
+                    continue;
+                }
+                int index = balances.indexOf(accountIds.get(i));
+                if (index >= 0) {
+                    balances.addAt(index, amounts[i]);
+                    balances.markDirty(index);
+                }
+            }
+            appliedVersion++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Lectura optimista sin bloqueo; si coincide con una escritura se repite con bloqueo de lectura
+     */
+    private long readBalance(UUID accountId) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                long balance = lookup(accountId);
+                if (lock.validate(stamp)) {
+                    return balance;
+                }
+            } catch (RuntimeException inconsistentRead) {
+                // Lectura concurrente con un redimensionado: se repite con bloqueo
+            }
+        }
+        
+        stamp = lock.readLock();
+        try {
+            return lookup(accountId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    private long lookup(UUID accountId) {
+        int index = balances.indexOf(accountId);
+        return index < 0 ? NO_ACCOUNT : balances.balanceAt(index);
+    }
+    
+    /**
+     * Espera al volcado si hay más cambios confirmados sin volcar que la cota de durabilidad
+     */
+    private Mono<Void> awaitDurability(long version) {
+        if (version - flushedVersion <= maxPendingChanges) {
+            return Mono.empty();
+        }
+        
+        flushRequests.emitNext(version, Sinks.EmitFailureHandler.busyLooping(EMIT_TIMEOUT));
+        return flushedVersions.asFlux()
+            .filter(flushed -> version - flushed <= maxPendingChanges)
+            .next()
+            .then();
+    }
+    
+    /**
+     * Vuelca a la base de datos los balances modificados desde el último volcado en una transacción
+     */
+    private Mono<Void> flush() {
+        List<UUID> accountIds = new ArrayList<>();
+        List<BigDecimal> accountBalances = new ArrayList<>();
+        long version;
+        
+        long stamp = lock.writeLock();
+        try {
+            version = appliedVersion;
+            balances.drainDirty(index -> {
+                accountIds.add(balances.keyAt(index));
+                accountBalances.add(fromMinorUnits(balances.balanceAt(index)));
+            });
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        
+        if (accountIds.isEmpty()) {
+            markFlushed(version);
+            return Mono.empty();
+        }
+        
+        return Flux.range(0, accountIds.size())
+            .concatMap(i -> accountRepository.setBalanceById(accountIds.get(i), accountBalances.get(i)))
+            .then()
+            .as(transactionalOperator::transactional)
+            .doOnSuccess(done -> {
+                markFlushed(version);
+                log.debug("Volcados {} balances a la base de datos (versión {})", accountIds.size(), version);
+            })
+            .onErrorResume(error -> {
+                log.error("Error volcando balances, se reintentará: {}", error.getMessage());
+                markDirtyAgain(accountIds);
+                return Mono.empty();
+            });
+    }
+    
+    private void markFlushed(long version) {
+        flushedVersion = version;
+        flushedVersions.tryEmitNext(version);
+    }
+    
+    private void markDirtyAgain(List<UUID> accountIds) {
+        long stamp = lock.writeLock();
+        try {
+            for (UUID accountId : accountIds) {
+                int index = balances.indexOf(accountId);
+                if (index >= 0) {
+                    balances.markDirty(index);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    private long pendingChanges() {
+        long stamp = lock.readLock();
+        try {
+            return appliedVersion - flushedVersion;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    private static BigDecimal fromMinorUnits(long amount) {
+        return BigDecimal.valueOf(amount, SCALE);
+    }
+}
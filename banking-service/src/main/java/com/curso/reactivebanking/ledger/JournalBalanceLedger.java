@@ -0,0 +1,289 @@
+package com.curso.reactivebanking.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.curso.reactivebanking.exception.AccountNotFoundException;
+import com.curso.reactivebanking.exception.InsufficientFundsException;
+import com.curso.reactivebanking.model.Account;
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.repository.LedgerJournalRepository;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Almacén de balances como libro mayor de doble entrada de solo inserciones.
+ * Cada transferencia añade un asiento de débito y otro de crédito a ledger_entries en lugar de
+ * actualizar la fila de accounts, por lo que los créditos a una cuenta muy concurrida no compiten
+ * por la misma fila. Solo los débitos bloquean la cuenta origen para no dejarla en negativo.
+ * El balance es la última instantánea de balance_snapshots más los asientos posteriores; un
+ * compactador en segundo plano avanza las instantáneas cada banking.ledger.journal.compaction-interval.
+ * Los IDs de asiento se asignan al insertar y no al confirmar, así que el compactador solo avanza
+ * hasta un asiento cuando ya terminaron todas las escrituras que podían tener uno menor sin confirmar.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banking.ledger.mode", havingValue = "journal")
+public class JournalBalanceLedger implements BalanceLedger, SmartInitializingSingleton, DisposableBean {
+    
+    private final LedgerJournalRepository journalRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final Duration compactionInterval;
+    
+    /**
+     * Escrituras de asientos en curso, por turno creciente; salen al terminar su transacción
+     */
+    private final NavigableSet<Long> inFlightWriters = new ConcurrentSkipListSet<>();
+    private long lastWriter;
+    
+    /**
+     * Frontera pendiente de compactar, registrada en una pasada anterior del compactador
+     */
+    private volatile CompactionBoundary pendingBoundary;
+    private Disposable compactor;
+    
+    public JournalBalanceLedger(LedgerJournalRepository journalRepository,
+                                TransactionalOperator transactionalOperator,
+                                @Value("${banking.ledger.journal.compaction-interval:5s}") Duration compactionInterval) {
+        this.journalRepository = journalRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.compactionInterval = compactionInterval;
+    }
+    
+    /**
+     * Crea las instantáneas iniciales a partir de la tabla accounts y arranca el compactador
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Long created = journalRepository.createOpeningSnapshots().block();
+        log.info("Libro mayor inicializado: {} instantáneas de apertura", created);
+        
+        compactor = Flux.interval(compactionInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> compact(), 1)
+            .subscribe();
+    }
+    
+    @Override
+    public void destroy() {
+        if (compactor != null) {
+            compactor.dispose();
+        }
+    }
+    
+    @Override
+    public Mono<Void> validateTransfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+        return journalRepository.findBalances(List.of(fromAccountId, toAccountId))
+            .flatMap(balances -> {
+                if (!balances.containsKey(fromAccountId)) {
+                    return Mono.error(new AccountNotFoundException(fromAccountId));
+                }
+                if (!balances.containsKey(toAccountId)) {
+                    return Mono.error(new AccountNotFoundException(toAccountId));
+                }
+                if (balances.get(fromAccountId).compareTo(amount) < 0) {
+                    return Mono.error(new InsufficientFundsException(fromAccountId, amount));
+                }
+                return Mono.empty();
+            });
+    }
+    
+    /**
+     * Bloquea solo la cuenta origen, inserta el débito si el balance lo cubre y después el crédito.
+     * Se ejecuta dentro de la transacción de la transferencia
+     */
+    @Override
+    public Mono<Boolean> applyTransfer(Transaction transaction) {
+        return trackWrites(journalRepository.lockAccount(transaction.getFromAccountId())
+            .flatMap(locked -> locked
+                ? journalRepository.appendDebitIfCovered(
+                    transaction.getFromAccountId(), transaction.getId(), transaction.getAmount())
+                : Mono.just(0L))
+            .flatMap(debited -> {
+                if (debited == 0) {
+                    return Mono.just(false);
+                }
+                return journalRepository.appendEntry(transaction.getToAccountId(), transaction.getId(),
+                        LedgerJournalRepository.CREDIT, transaction.getAmount())
+                    .map(credited -> credited > 0);
+            }));
+    }
+    
+    /**
+     * Bloquea en orden de ID las cuentas con delta negativo, comprueba que ninguna quede en negativo
+     * e inserta los asientos de todas las transferencias en una sentencia por lotes
+     */
+    @Override
+    public Mono<Void> applyBatch(List<Transaction> transactions, Map<UUID, BigDecimal> deltas) {
+        if (transactions.isEmpty()) {
+            return Mono.empty();
+        }
+        
+        Map<UUID, BigDecimal> debits = new TreeMap<>();
+        deltas.forEach((accountId, delta) -> {
+            if (delta.signum() < 0) {
+                debits.put(accountId, delta);
+            }
+        });
+        
+        return trackWrites(Flux.fromIterable(debits.keySet())
+            .concatMap(journalRepository::lockAccount)
+            .then(journalRepository.findBalances(debits.keySet()))
+            .flatMap(balances -> {
+                for (Map.Entry<UUID, BigDecimal> debit : debits.entrySet()) {
+                    BigDecimal balance = balances.get(debit.getKey());
+                    if (balance == null || balance.add(debit.getValue()).signum() < 0) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                            "Los balances cambiaron durante la transferencia por lotes"));
+                    }
+                }
+                return journalRepository.appendTransferEntries(transactions);
+            })
+            .then());
+    }
+    
+    @Override
+    public Mono<Map<UUID, BigDecimal>> getBalances(Collection<UUID> accountIds) {
+        return journalRepository.findBalances(accountIds);
+    }
+    
+    @Override
+    public Mono<BigDecimal> getBalance(UUID accountId) {
+        return journalRepository.findBalances(List.of(accountId))
+            .flatMap(balances -> Mono.justOrEmpty(balances.get(accountId)));
+    }
+    
+    @Override
+    public Mono<Boolean> hasSufficientFunds(UUID accountId, BigDecimal amount) {
+        return getBalance(accountId)
+            .map(balance -> balance.compareTo(amount) >= 0);
+    }
+    
+    @Override
+    public Mono<Account> refreshBalance(Account account) {
+        return getBalance(account.getId())
+            .map(balance -> {
+                account.setBalance(balance);
+                return account;
+            })
+            .defaultIfEmpty(account);
+    }
+    
+    /**
+     * Una cuenta nueva recibe su instantánea de apertura; si ya existía, el cambio de balance
+     * hecho desde la API se registra como un asiento de ajuste
+     */
+    @Override
+    public Mono<Void> accountSaved(Account account) {
+        return trackWrites(journalRepository.lockAccount(account.getId())
+            .then(journalRepository.createOpeningSnapshot(account.getId()))
+            .flatMap(created -> {
+                if (created > 0) {
+                    return Mono.empty();
+                }
+                return getBalance(account.getId())
+                    .map(current -> account.getBalance().subtract(current))
+                    .filter(adjustment -> adjustment.signum() != 0)
+                    .flatMap(adjustment -> journalRepository.appendEntry(
+                        account.getId(), null, LedgerJournalRepository.ADJUSTMENT, adjustment));
+            })
+            .then())
+            .as(transactionalOperator::transactional);
+    }
+    
+    /**
+     * Registra la escritura como en curso hasta que su transacción termine (confirmada o no),
+     * o hasta que termine la propia escritura si no hay transacción
+     */
+    private <T> Mono<T> trackWrites(Mono<T> writes) {
+        return Mono.defer(() -> {
+            long writer = registerWriter();
+            return TransactionSynchronizationManager.forCurrentTransaction()
+                .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                .doOnNext(synchronization -> synchronization.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCompletion(int status) {
+                        return Mono.fromRunnable(() -> inFlightWriters.remove(writer));
+                    }
+                }))
+                .hasElement()
+                .onErrorResume(NoTransactionException.class, e -> Mono.just(false))
+                .flatMap(transactional -> transactional
+                    ? writes
+                    : writes.doFinally(signal -> inFlightWriters.remove(writer)));
+        });
+    }
+    
+    private synchronized long registerWriter() {
+        inFlightWriters.add(++lastWriter);
+        return lastWriter;
+    }
+    
+    private synchronized long lastRegisteredWriter() {
+        return lastWriter;
+    }
+    
+    /**
+     * Compacta hasta la frontera pendiente si ya terminaron las escrituras que estaban en curso
+     * al registrarla, y registra una nueva frontera con el último asiento actual.
+     * Una escritura registrada después de leer el último asiento inserta siempre IDs mayores,
+     * así que basta con esperar a las registradas antes de esa lectura
+     */
+    private Mono<Void> compact() {
+        CompactionBoundary boundary = pendingBoundary;
+        if (boundary != null && !boundary.isSettled(inFlightWriters)) {
+            log.debug("Compactación hasta el asiento {} aplazada: hay escrituras anteriores en curso", boundary.lastEntryId());
+            return Mono.empty();
+        }
+        
+        Mono<Void> compaction = boundary == null || boundary.lastEntryId() == 0
+            ? Mono.empty()
+            : journalRepository.compactUpTo(boundary.lastEntryId())
+                .doOnNext(snapshots -> {
+                    if (snapshots > 0) {
+                        log.debug("Compactadas {} cuentas hasta el asiento {}", snapshots, boundary.lastEntryId());
+                    }
+                })
+                .then();
+        
+        return compaction
+            .then(journalRepository.findLastEntryId())
+            .doOnNext(lastEntryId -> pendingBoundary = new CompactionBoundary(lastEntryId, lastRegisteredWriter()))
+            .then()
+            .onErrorResume(error -> {
+                log.error("Error compactando el libro mayor, se reintentará: {}", error.getMessage());
+                return Mono.empty();
+            });
+    }
+    
+    /**
+     * Último asiento leído por el compactador y última escritura registrada al leerlo
+     */
+    private record CompactionBoundary(long lastEntryId, long lastWriter) {
+        
+        boolean isSettled(NavigableSet<Long> inFlightWriters) {
+            return inFlightWriters.headSet(lastWriter, true).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.curso.reactivebanking.ledger;
+
+/**
+ * Modo de ejecución de las transferencias individuales
+ */
+public enum TransferExecutionMode {
+    /**
+     * Valida existencia y fondos con consultas separadas y después actualiza los balances
+     */
+    STANDARD,
+    
+    /**
+     * Valida con una única consulta condicional y debita con un UPDATE guardado por el balance,
+     * de modo que el número de filas actualizadas decide el resultado
+     */
+    GUARDED
+}
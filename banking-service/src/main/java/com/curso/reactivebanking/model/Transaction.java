@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.math.BigDecimal;
@@ -38,10 +39,39 @@ public class Transaction {
     @NotNull(message = "El estado no puede ser nulo")
     private TransactionStatus status;
     
+    /**
+     * Máscara de FraudReason; 0 si no hay motivos de fraude
+     */
+    private int fraudReasons;
+    
+    /**
+     * Transacciones de la cuenta origen en el último minuto cuando se marca HIGH_FREQUENCY
+     */
+    private Integer fraudVelocity;
+    
+    /**
+     * Desviaciones típicas sobre el monto medio de la cuenta cuando se marca AMOUNT_OUTLIER
+     */
+    private BigDecimal fraudAmountZScore;
+    
+    /**
+     * Cuentas destino distintas estimadas de la cuenta origen en la ventana cuando se marca HIGH_FAN_OUT
+     */
+    private Integer fraudFanOut;
+    
+    /**
+     * Texto libre para errores de ejecución; el texto de los motivos se compone con FraudReason.describe
+     */
     private String fraudAnalysis;
     
     private String description;
     
+    /**
+     * Aprobada por la vía rápida: las reglas asíncronas se evaluarán después de confirmarla
+     */
+    @Transient
+    private boolean fraudScoringDeferred;
+    
     public Transaction(UUID fromAccountId, UUID toAccountId, BigDecimal amount, String description) {
         this.fromAccountId = fromAccountId;
         this.toAccountId = toAccountId;
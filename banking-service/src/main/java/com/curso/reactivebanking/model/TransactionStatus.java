@@ -17,5 +17,10 @@ public enum TransactionStatus {
     /**
      * Transacción rechazada (por fraude, fondos insuficientes, etc.)
      */
-    REJECTED
+    REJECTED,
+    
+    /**
+     * Transacción ya ejecutada que el análisis de fraude diferido marcó para revisión
+     */
+    REVIEW
 } 
\ No newline at end of file
@@ -0,0 +1,222 @@
+package com.curso.reactivebanking.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+
+import com.curso.reactivebanking.model.Account;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché de lectura de filas de accounts por ID, delante de AccountRepository. La carga es asíncrona
+ * y se comparte: las peticiones simultáneas de una cuenta ausente esperan a la misma consulta.
+ * Acotada a banking.account.cache.max-size cuentas (se descartan las usadas hace más tiempo) y a
+ * banking.account.cache.ttl por entrada. Las cuentas inexistentes no se guardan.
+ * Quien modifica una fila debe llamar a invalidate: la entrada se descarta en el momento y, dentro
+ * de una transacción, también al terminarla, para no conservar una lectura previa al commit.
+ * Las filas devueltas son copias; el balance de la fila no incluye franjas ni otros almacenes.
+ */
+@Slf4j
+@Component
+public class AccountCache {
+    
+    private final AccountRepository accountRepository;
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, UUID> idsByNumber = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+    
+    public AccountCache(AccountRepository accountRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${banking.account.cache.enabled:true}") boolean enabled,
+                        @Value("${banking.account.cache.max-size:10000}") int maxSize,
+                        @Value("${banking.account.cache.ttl:5m}") Duration ttl) {
+        this.accountRepository = accountRepository;
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        
+        Gauge.builder("banking.account.cache.size", entries, Map::size)
+            .description("Cuentas en la caché de lectura")
+            .register(meterRegistry);
+        this.hits = Counter.builder("banking.account.cache.gets")
+            .description("Lecturas de cuentas según se resolvieron en la caché")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("banking.account.cache.gets")
+            .description("Lecturas de cuentas según se resolvieron en la caché")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        this.evictions = Counter.builder("banking.account.cache.evictions")
+            .description("Cuentas descartadas de la caché por tamaño")
+            .register(meterRegistry);
+        this.invalidations = Counter.builder("banking.account.cache.invalidations")
+            .description("Cuentas invalidadas en la caché por una escritura")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Cuenta por ID; vacío si no existe
+     */
+    public Mono<Account> findById(UUID accountId) {
+        if (!enabled) {
+            return accountRepository.findById(accountId);
+        }
+        return Mono.defer(() -> {
+            long now = System.nanoTime();
+            Entry entry = entries.get(accountId);
+            if (entry != null && now - entry.loadedAt < ttlNanos) {
+                entry.lastAccess = now;
+                hits.increment();
+                return entry.account.map(AccountCache::copy);
+            }
+            
+            Entry[] created = new Entry[1];
+            entry = entries.compute(accountId, (id, existing) -> {
+                if (existing != null && now - existing.loadedAt < ttlNanos) {
+                    return existing;
+                }
+                created[0] = new Entry(id, now);
+                return created[0];
+            });
+            entry.lastAccess = now;
+            if (created[0] == null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                if (entries.size() > maxSize) {
+                    evictLeastRecentlyUsed();
+                }
+            }
+            return entry.account.map(AccountCache::copy);
+        });
+    }
+    
+    /**
+     * Cuenta por número; vacío si no existe
+     */
+    public Mono<Account> findByAccountNumber(String accountNumber) {
+        if (!enabled) {
+            return accountRepository.findByAccountNumber(accountNumber);
+        }
+        return Mono.defer(() -> {
+            UUID accountId = idsByNumber.get(accountNumber);
+            if (accountId != null) {
+                // El número pudo cambiar desde que se indexó: se comprueba sobre la fila actual
+                return findById(accountId)
+                    .filter(account -> accountNumber.equals(account.getAccountNumber()))
+                    .switchIfEmpty(Mono.defer(() -> {
+                        idsByNumber.remove(accountNumber, accountId);
+                        return loadByNumber(accountNumber);
+                    }));
+            }
+            misses.increment();
+            return loadByNumber(accountNumber);
+        });
+    }
+    
+    public Mono<Boolean> existsById(UUID accountId) {
+        return findById(accountId).hasElement();
+    }
+    
+    /**
+     * Descarta las cuentas modificadas. Si hay una transacción en curso se descartan otra vez al
+     * terminar, porque hasta el commit otra lectura puede volver a cargar el valor anterior
+     */
+    public Mono<Void> invalidate(Collection<UUID> accountIds) {
+        if (!enabled || accountIds.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            evict(accountIds);
+            return TransactionSynchronizationManager.forCurrentTransaction()
+                .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                .doOnNext(synchronization -> synchronization.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCompletion(int status) {
+                        return Mono.fromRunnable(() -> evict(accountIds));
+                    }
+                }))
+                .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+                .then();
+        });
+    }
+    
+    private Mono<Account> loadByNumber(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber)
+            .doOnNext(account -> idsByNumber.put(accountNumber, account.getId()));
+    }
+    
+    private void evict(Collection<UUID> accountIds) {
+        for (UUID accountId : accountIds) {
+            if (entries.remove(accountId) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+    
+    /**
+     * Descarta las cuentas usadas hace más tiempo hasta dejar la caché al 90% de su tamaño máximo,
+     * para que el recorrido completo solo se haga una vez cada muchas cargas
+     */
+    private synchronized void evictLeastRecentlyUsed() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        List<Entry> candidates = new ArrayList<>(entries.values());
+        candidates.sort(Comparator.comparingLong(entry -> entry.lastAccess));
+        int toEvict = candidates.size() - maxSize * 9 / 10;
+        for (int i = 0; i < toEvict; i++) {
+            if (entries.remove(candidates.get(i).accountId, candidates.get(i))) {
+                evictions.increment();
+            }
+        }
+        idsByNumber.values().removeIf(accountId -> !entries.containsKey(accountId));
+        log.debug("Caché de cuentas reducida a {} entradas", entries.size());
+    }
+    
+    private static Account copy(Account account) {
+        return new Account(account.getId(), account.getAccountNumber(), account.getOwnerName(),
+            account.getBalance(), account.getCreatedAt(), account.getUpdatedAt());
+    }
+    
+    private final class Entry {
+        
+        private final UUID accountId;
+        private final long loadedAt;
+        private final Mono<Account> account;
+        private volatile long lastAccess;
+        
+        private Entry(UUID accountId, long loadedAt) {
+            this.accountId = accountId;
+            this.loadedAt = loadedAt;
+            // Si la cuenta no existe o la consulta falla la entrada se retira y la siguiente lectura consulta de nuevo
+            this.account = accountRepository.findById(accountId)
+                .doOnNext(loaded -> idsByNumber.put(loaded.getAccountNumber(), accountId))
+                .switchIfEmpty(Mono.fromRunnable(() -> entries.remove(accountId, this)))
+                .doOnError(error -> entries.remove(accountId, this))
+                .cache();
+        }
+    }
+}
@@ -32,9 +32,30 @@ public interface AccountRepository extends R2dbcRepository<Account, UUID> {
     @Query("UPDATE accounts SET balance = balance + :amount, updated_at = CURRENT_TIMESTAMP WHERE id = :accountId")
     Mono<Integer> updateBalanceById(UUID accountId, BigDecimal amount);
     
+    /**
+     * Fija el balance de una cuenta a un valor absoluto
+     */
+    @Modifying
+    @Query("UPDATE accounts SET balance = :balance, updated_at = CURRENT_TIMESTAMP WHERE id = :accountId")
+    Mono<Integer> setBalanceById(UUID accountId, BigDecimal balance);
+    
     /**
      * Verifica si una cuenta tiene fondos suficientes
      */
     @Query("SELECT CASE WHEN balance >= :amount THEN true ELSE false END FROM accounts WHERE id = :accountId")
     Mono<Boolean> hasSufficientFunds(UUID accountId, BigDecimal amount);
+    
+    /**
+     * Debita la cuenta solo si tiene fondos suficientes; el número de filas actualizadas decide el resultado
+     */
+    @Modifying
+    @Query("UPDATE accounts SET balance = balance - :amount, updated_at = CURRENT_TIMESTAMP WHERE id = :accountId AND balance >= :amount")
+    Mono<Integer> debitIfSufficientFunds(UUID accountId, BigDecimal amount);
+    
+    /**
+     * Cuenta en una sola consulta las cuentas listas para la transferencia:
+     * la cuenta destino si existe y la cuenta origen si existe y tiene fondos suficientes
+     */
+    @Query("SELECT COUNT(*) FROM accounts WHERE id = :toAccountId OR (id = :fromAccountId AND balance >= :amount)")
+    Mono<Long> countTransferReadyAccounts(UUID fromAccountId, UUID toAccountId, BigDecimal amount);
 } 
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.curso.reactivebanking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Acceso a las franjas de balance (account_balance_stripes) de las cuentas muy concurridas
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccountStripeRepository {
+    
+    private final DatabaseClient databaseClient;
+    
+    /**
+     * Crea la franja con balance cero si aún no existe
+     */
+    public Mono<Long> createIfMissing(UUID accountId, int stripe) {
+        return databaseClient.sql(
+                "INSERT INTO account_balance_stripes (account_id, stripe, balance) " +
+                "SELECT a.id, :stripe, 0 FROM accounts a WHERE a.id = :accountId " +
+                "AND NOT EXISTS (SELECT 1 FROM account_balance_stripes s WHERE s.account_id = a.id AND s.stripe = :stripe)")
+            .bind("accountId", accountId)
+            .bind("stripe", stripe)
+            .fetch()
+            .rowsUpdated();
+    }
+    
+    /**
+     * Acredita el monto en una franja
+     */
+    public Mono<Long> credit(UUID accountId, int stripe, BigDecimal amount) {
+        return databaseClient.sql(
+                "UPDATE account_balance_stripes SET balance = balance + :amount WHERE account_id = :accountId AND stripe = :stripe")
+            .bind("amount", amount)
+            .bind("accountId", accountId)
+            .bind("stripe", stripe)
+            .fetch()
+            .rowsUpdated();
+    }
+    
+    /**
+     * Debita la franja solo si cubre el monto; el número de filas actualizadas decide el resultado
+     */
+    public Mono<Long> debitIfCovered(UUID accountId, int stripe, BigDecimal amount) {
+        return databaseClient.sql(
+                "UPDATE account_balance_stripes SET balance = balance - :amount " +
+                "WHERE account_id = :accountId AND stripe = :stripe AND balance >= :amount")
+            .bind("amount", amount)
+            .bind("accountId", accountId)
+            .bind("stripe", stripe)
+            .fetch()
+            .rowsUpdated();
+    }
+    
+    /**
+     * Suma de las franjas por cuenta; las cuentas sin franjas no aparecen
+     */
+    public Mono<Map<UUID, BigDecimal>> sumByAccount(Collection<UUID> accountIds) {
+        if (accountIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        
+        return databaseClient.sql(
+                "SELECT account_id, SUM(balance) AS total FROM account_balance_stripes " +
+                "WHERE account_id IN (:accountIds) GROUP BY account_id")
+            .bind("accountIds", accountIds)
+            .map((row, metadata) -> Map.entry(row.get("account_id", UUID.class), row.get("total", BigDecimal.class)))
+            .all()
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+    
+    /**
+     * Bloquea todas las franjas de la cuenta en orden de franja hasta el fin de la transacción
+     * y devuelve su suma
+     */
+    public Mono<BigDecimal> lockAll(UUID accountId) {
+        return databaseClient.sql(
+                "SELECT stripe, balance FROM account_balance_stripes WHERE account_id = :accountId ORDER BY stripe FOR UPDATE")
+            .bind("accountId", accountId)
+            .map((row, metadata) -> row.get("balance", BigDecimal.class))
+            .all()
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+    
+    /**
+     * Bloquea todas las franjas de la cuenta en orden de franja y mueve su suma a accounts.balance.
+     * Debe ejecutarse dentro de una transacción; devuelve el monto consolidado
+     */
+    public Mono<BigDecimal> consolidate(UUID accountId) {
+        return lockAll(accountId)
+            .flatMap(total -> {
+                if (total.signum() == 0) {
+                    return Mono.just(total);
+                }
+                return databaseClient.sql(
+                        "UPDATE accounts SET balance = balance + :total, updated_at = CURRENT_TIMESTAMP WHERE id = :accountId")
+                    .bind("total", total)
+                    .bind("accountId", accountId)
+                    .fetch()
+                    .rowsUpdated()
+                    .then(resetAll(accountId))
+                    .thenReturn(total);
+            });
+    }
+    
+    /**
+     * Pone a cero todas las franjas de la cuenta
+     */
+    public Mono<Long> resetAll(UUID accountId) {
+        return databaseClient.sql("UPDATE account_balance_stripes SET balance = 0 WHERE account_id = :accountId")
+            .bind("accountId", accountId)
+            .fetch()
+            .rowsUpdated();
+    }
+}
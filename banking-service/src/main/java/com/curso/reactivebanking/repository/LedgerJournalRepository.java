@@ -0,0 +1,186 @@
+package com.curso.reactivebanking.repository;
+
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.curso.reactivebanking.model.Transaction;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Acceso al libro mayor de solo inserciones (ledger_entries) y a sus instantáneas de balance.
+ * El balance de una cuenta es la última instantánea más la suma de los asientos posteriores.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerJournalRepository {
+    
+    public static final String DEBIT = "DEBIT";
+    public static final String CREDIT = "CREDIT";
+    public static final String ADJUSTMENT = "ADJUSTMENT";
+    
+    /**
+     * Balance derivado de la cuenta a.id: última instantánea más los asientos posteriores
+     */
+    private static final String DERIVED_BALANCE =
+        "COALESCE((SELECT s.balance FROM balance_snapshots s WHERE s.account_id = a.id " +
+        "ORDER BY s.last_entry_id DESC LIMIT 1), 0) + " +
+        "COALESCE((SELECT SUM(e.amount) FROM ledger_entries e WHERE e.account_id = a.id " +
+        "AND e.id > COALESCE((SELECT MAX(s.last_entry_id) FROM balance_snapshots s WHERE s.account_id = a.id), 0)), 0)";
+    
+    private static final String INSERT_ENTRY =
+        "INSERT INTO ledger_entries (account_id, transaction_id, entry_type, amount) VALUES ($1, $2, $3, $4)";
+    
+    private static final String OPENING_SNAPSHOT =
+        "INSERT INTO balance_snapshots (account_id, last_entry_id, balance) " +
+        "SELECT a.id, 0, a.balance FROM accounts a " +
+        "WHERE NOT EXISTS (SELECT 1 FROM balance_snapshots s WHERE s.account_id = a.id)";
+    
+    private final DatabaseClient databaseClient;
+    
+    /**
+     * Obtiene los balances derivados de las cuentas indicadas; las cuentas inexistentes no aparecen
+     */
+    public Mono<Map<UUID, BigDecimal>> findBalances(Collection<UUID> accountIds) {
+        if (accountIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        
+        return databaseClient.sql("SELECT a.id, " + DERIVED_BALANCE + " AS balance FROM accounts a WHERE a.id IN (:accountIds)")
+            .bind("accountIds", accountIds)
+            .map((row, metadata) -> Map.entry(row.get("id", UUID.class), row.get("balance", BigDecimal.class)))
+            .all()
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+    
+    /**
+     * Bloquea la fila de la cuenta hasta el fin de la transacción para serializar sus débitos.
+     * Devuelve false si la cuenta no existe
+     */
+    public Mono<Boolean> lockAccount(UUID accountId) {
+        return databaseClient.sql("SELECT id FROM accounts WHERE id = :accountId FOR UPDATE")
+            .bind("accountId", accountId)
+            .map((row, metadata) -> true)
+            .first()
+            .defaultIfEmpty(false);
+    }
+    
+    /**
+     * Inserta el asiento de débito solo si el balance derivado cubre el monto.
+     * Debe ejecutarse con la cuenta bloqueada; devuelve las filas insertadas (0 o 1)
+     */
+    public Mono<Long> appendDebitIfCovered(UUID accountId, UUID transactionId, BigDecimal amount) {
+        return databaseClient.sql(
+                "INSERT INTO ledger_entries (account_id, transaction_id, entry_type, amount) " +
+                "SELECT a.id, :transactionId, '" + DEBIT + "', :debit FROM accounts a " +
+                "WHERE a.id = :accountId AND " + DERIVED_BALANCE + " >= :amount")
+            .bind("accountId", accountId)
+            .bind("transactionId", transactionId)
+            .bind("debit", amount.negate())
+            .bind("amount", amount)
+            .fetch()
+            .rowsUpdated();
+    }
+    
+    /**
+     * Inserta un asiento sin condiciones (créditos y ajustes)
+     */
+    public Mono<Long> appendEntry(UUID accountId, UUID transactionId, String entryType, BigDecimal amount) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(INSERT_ENTRY)
+            .bind(0, accountId);
+        spec = transactionId == null ? spec.bindNull(1, UUID.class) : spec.bind(1, transactionId);
+        return spec.bind(2, entryType)
+            .bind(3, amount)
+            .fetch()
+            .rowsUpdated();
+    }
+    
+    /**
+     * Inserta el débito y el crédito de cada transacción en una sola sentencia por lotes
+     */
+    public Mono<Long> appendTransferEntries(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return Mono.just(0L);
+        }
+        
+        return databaseClient.inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(INSERT_ENTRY);
+                for (int i = 0; i < transactions.size(); i++) {
+                    Transaction transaction = transactions.get(i);
+                    if (i > 0) {
+                        statement.add();
+                    }
+                    statement.bind(0, transaction.getFromAccountId())
+                        .bind(1, transaction.getId())
+                        .bind(2, DEBIT)
+                        .bind(3, transaction.getAmount().negate());
+                    statement.add();
+                    statement.bind(0, transaction.getToAccountId())
+                        .bind(1, transaction.getId())
+                        .bind(2, CREDIT)
+                        .bind(3, transaction.getAmount());
+                }
+                return Flux.from(statement.execute())
+                    .flatMap(result -> Mono.from(result.getRowsUpdated()));
+            })
+            .reduce(0L, Long::sum);
+    }
+    
+    /**
+     * Crea la instantánea inicial (last_entry_id = 0) con el balance de la tabla accounts
+     * para las cuentas que aún no tienen ninguna
+     */
+    public Mono<Long> createOpeningSnapshots() {
+        return databaseClient.sql(OPENING_SNAPSHOT)
+            .fetch()
+            .rowsUpdated();
+    }
+    
+    /**
+     * Crea la instantánea inicial de una cuenta si aún no tiene ninguna; devuelve las filas insertadas
+     */
+    public Mono<Long> createOpeningSnapshot(UUID accountId) {
+        return databaseClient.sql(OPENING_SNAPSHOT + " AND a.id = :accountId")
+            .bind("accountId", accountId)
+            .fetch()
+            .rowsUpdated();
+    }
+    
+    /**
+     * ID del último asiento insertado, o 0 si el libro está vacío
+     */
+    public Mono<Long> findLastEntryId() {
+        return databaseClient.sql("SELECT COALESCE(MAX(id), 0) AS last_id FROM ledger_entries")
+            .map((row, metadata) -> row.get("last_id", Long.class))
+            .one();
+    }
+    
+    /**
+     * Crea una nueva instantánea hasta el asiento watermark para cada cuenta con asientos
+     * posteriores a su última instantánea. Devuelve el número de instantáneas creadas
+     */
+    public Mono<Long> compactUpTo(long watermark) {
+        return databaseClient.sql(
+                "INSERT INTO balance_snapshots (account_id, last_entry_id, balance) " +
+                "SELECT s.account_id, :watermark, s.balance + " +
+                "(SELECT SUM(e.amount) FROM ledger_entries e WHERE e.account_id = s.account_id " +
+                "AND e.id > s.last_entry_id AND e.id <= :watermark) " +
+                "FROM balance_snapshots s " +
+                "WHERE s.last_entry_id = (SELECT MAX(x.last_entry_id) FROM balance_snapshots x WHERE x.account_id = s.account_id) " +
+                "AND s.last_entry_id < :watermark " +
+                "AND EXISTS (SELECT 1 FROM ledger_entries e WHERE e.account_id = s.account_id " +
+                "AND e.id > s.last_entry_id AND e.id <= :watermark)")
+            .bind("watermark", watermark)
+            .fetch()
+            .rowsUpdated();
+    }
+}
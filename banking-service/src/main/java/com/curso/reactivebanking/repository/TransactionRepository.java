@@ -11,6 +11,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.UUID;
 
 @Repository
@@ -28,20 +29,64 @@ public interface TransactionRepository extends R2dbcRepository<Transaction, UUID
     Flux<Transaction> findByStatus(TransactionStatus status);
     
     /**
-     * Cuenta transacciones de una cuenta en un período de tiempo
+     * Cuenta transacciones de una cuenta en un período de tiempo, sin contar la indicada
      */
-    @Query("SELECT COUNT(*) FROM transactions WHERE from_account_id = :accountId AND timestamp >= :fromTime")
-    Mono<Long> countTransactionsFromAccountSince(UUID accountId, LocalDateTime fromTime);
+    @Query("SELECT COUNT(*) FROM transactions WHERE from_account_id = :accountId AND timestamp >= :fromTime " +
+           "AND id <> :excludedId")
+    Mono<Long> countTransactionsFromAccountSince(UUID accountId, LocalDateTime fromTime, UUID excludedId);
     
     /**
-     * Obtiene transacciones sospechosas (pendientes o rechazadas)
+     * Cuenta las transacciones de cada cuenta origen en un período de tiempo con una sola consulta,
+     * sin contar las indicadas; las cuentas sin transacciones no aparecen
      */
-    @Query("SELECT * FROM transactions WHERE status IN ('PENDING', 'REJECTED') ORDER BY timestamp DESC")
-    Flux<Transaction> findSuspiciousTransactions();
+    @Query("SELECT from_account_id, COUNT(*) AS total FROM transactions " +
+           "WHERE from_account_id IN (:accountIds) AND timestamp >= :fromTime AND id NOT IN (:excludedIds) " +
+           "GROUP BY from_account_id")
+    Flux<AccountTransactionCount> countTransactionsFromAccountsSince(Collection<UUID> accountIds, LocalDateTime fromTime,
+                                                                     Collection<UUID> excludedIds);
+    
+    /**
+     * Obtiene las transacciones creadas en el intervalo indicado (ambos extremos incluidos)
+     */
+    Flux<Transaction> findByTimestampBetween(LocalDateTime fromTime, LocalDateTime toTime);
+    
+    /**
+     * Obtiene las transacciones en el estado indicado creadas desde el instante indicado
+     */
+    Flux<Transaction> findByStatusAndTimestampGreaterThanEqual(TransactionStatus status, LocalDateTime fromTime);
+    
+    /**
+     * Obtiene las transacciones creadas desde el instante indicado
+     */
+    Flux<Transaction> findByTimestampGreaterThanEqual(LocalDateTime fromTime);
+    
+    /**
+     * Página de transacciones sospechosas (pendientes, rechazadas o marcadas para revisión)
+     * anteriores al cursor (timestamp, id), de la más reciente a la más antigua
+     */
+    @Query("SELECT * FROM transactions WHERE status IN ('PENDING', 'REJECTED', 'REVIEW') " +
+           "AND timestamp <= :timestamp AND (timestamp < :timestamp OR id < :id) " +
+           "ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Flux<Transaction> findSuspiciousTransactionsBefore(LocalDateTime timestamp, UUID id, int limit);
+    
+    /**
+     * Página de transacciones cuya máscara de motivos de fraude es uno de los valores indicados,
+     * anteriores al cursor (timestamp, id), de la más reciente a la más antigua
+     */
+    @Query("SELECT * FROM transactions WHERE fraud_reasons IN (:masks) " +
+           "AND timestamp <= :timestamp AND (timestamp < :timestamp OR id < :id) " +
+           "ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Flux<Transaction> findByFraudReasonsInBefore(Collection<Integer> masks, LocalDateTime timestamp, UUID id, int limit);
     
     /**
      * Obtiene las últimas transacciones ordenadas por fecha
      */
     @Query("SELECT * FROM transactions ORDER BY timestamp DESC LIMIT :limit")
     Flux<Transaction> findLatestTransactions(int limit);
+    
+    /**
+     * Número de transacciones de una cuenta origen
+     */
+    record AccountTransactionCount(UUID fromAccountId, Long total) {
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.curso.reactivebanking.repository;
+
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.curso.reactivebanking.model.Transaction;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Escrituras por lotes para transferencias masivas.
+ * Cada método envía una única sentencia con múltiples juegos de parámetros
+ * (Statement.add) en lugar de una sentencia por fila.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransferBatchRepository {
+    
+    private static final String INSERT_TRANSACTION =
+        "INSERT INTO transactions (id, from_account_id, to_account_id, amount, timestamp, status, fraud_reasons, fraud_velocity, fraud_amount_z_score, fraud_fan_out, fraud_analysis, description) " +
+        "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12)";
+    
+    private static final String APPLY_BALANCE_DELTA =
+        "UPDATE accounts SET balance = balance + $1, updated_at = CURRENT_TIMESTAMP " +
+        "WHERE id = $2 AND balance + $1 >= 0";
+    
+    private static final String MARK_FOR_REVIEW =
+        "UPDATE transactions SET status = 'REVIEW', fraud_reasons = $1, fraud_velocity = $2 " +
+        "WHERE id = $3 AND status = 'APPROVED'";
+    
+    private static final String UPDATE_FRAUD_ANALYSIS =
+        "UPDATE transactions SET status = $1, fraud_reasons = $2, fraud_velocity = $3, fraud_amount_z_score = $4, fraud_fan_out = $5 " +
+        "WHERE id = $6";
+    
+    private final DatabaseClient databaseClient;
+    
+    /**
+     * Inserta todas las transacciones en una sola sentencia por lotes.
+     * Las transacciones deben llevar el ID ya generado.
+     */
+    public Mono<Long> insertAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return Mono.just(0L);
+        }
+        
+        return databaseClient.inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(INSERT_TRANSACTION);
+                for (int i = 0; i < transactions.size(); i++) {
+                    if (i > 0) {
+                        statement.add();
+                    }
+                    bindTransaction(statement, transactions.get(i));
+                }
+                return Flux.from(statement.execute())
+                    .flatMap(result -> Mono.from(result.getRowsUpdated()));
+            })
+            .reduce(0L, Long::sum);
+    }
+    
+    /**
+     * Aplica los deltas netos de balance por cuenta en una sola sentencia por lotes.
+     * Devuelve el número de cuentas actualizadas; si alguna cuenta quedaría en negativo
+     * no se actualiza y el total será menor que el número de deltas.
+     */
+    public Mono<Long> applyBalanceDeltas(Map<UUID, BigDecimal> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.just(0L);
+        }
+        
+        return databaseClient.inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(APPLY_BALANCE_DELTA);
+                boolean first = true;
+                for (Map.Entry<UUID, BigDecimal> delta : deltas.entrySet()) {
+                    if (!first) {
+                        statement.add();
+                    }
+                    statement.bind(0, delta.getValue()).bind(1, delta.getKey());
+                    first = false;
+                }
+                return Flux.from(statement.execute())
+                    .flatMap(result -> Mono.from(result.getRowsUpdated()));
+            })
+            .reduce(0L, Long::sum);
+    }
+    
+    /**
+     * Pasa a REVIEW las transacciones aprobadas que el análisis diferido marcó, con sus motivos
+     */
+    public Mono<Long> markForReview(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return Mono.just(0L);
+        }
+        
+        return databaseClient.inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(MARK_FOR_REVIEW);
+                for (int i = 0; i < transactions.size(); i++) {
+                    if (i > 0) {
+                        statement.add();
+                    }
+                    Transaction transaction = transactions.get(i);
+                    statement.bind(0, transaction.getFraudReasons());
+                    bindNullable(statement, 1, transaction.getFraudVelocity(), Integer.class);
+                    statement.bind(2, transaction.getId());
+                }
+                return Flux.from(statement.execute())
+                    .flatMap(result -> Mono.from(result.getRowsUpdated()));
+            })
+            .reduce(0L, Long::sum);
+    }
+    
+    /**
+     * Actualiza el estado y los motivos de fraude de las transacciones reanalizadas
+     */
+    public Mono<Long> updateFraudAnalysis(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return Mono.just(0L);
+        }
+        
+        return databaseClient.inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(UPDATE_FRAUD_ANALYSIS);
+                for (int i = 0; i < transactions.size(); i++) {
+                    if (i > 0) {
+                        statement.add();
+                    }
+                    Transaction transaction = transactions.get(i);
+                    statement.bind(0, transaction.getStatus().name())
+                        .bind(1, transaction.getFraudReasons());
+                    bindNullable(statement, 2, transaction.getFraudVelocity(), Integer.class);
+                    bindNullable(statement, 3, transaction.getFraudAmountZScore(), BigDecimal.class);
+                    bindNullable(statement, 4, transaction.getFraudFanOut(), Integer.class);
+                    statement.bind(5, transaction.getId());
+                }
+                return Flux.from(statement.execute())
+                    .flatMap(result -> Mono.from(result.getRowsUpdated()));
+            })
+            .reduce(0L, Long::sum);
+    }
+    
+    private void bindTransaction(Statement statement, Transaction transaction) {
+        statement.bind(0, transaction.getId())
+            .bind(1, transaction.getFromAccountId())
+            .bind(2, transaction.getToAccountId())
+            .bind(3, transaction.getAmount())
+            .bind(4, transaction.getTimestamp())
+            .bind(5, transaction.getStatus().name())
+            .bind(6, transaction.getFraudReasons());
+        bindNullable(statement, 7, transaction.getFraudVelocity(), Integer.class);
+        bindNullable(statement, 8, transaction.getFraudAmountZScore(), BigDecimal.class);
+        bindNullable(statement, 9, transaction.getFraudFanOut(), Integer.class);
+        bindNullable(statement, 10, transaction.getFraudAnalysis(), String.class);
+        bindNullable(statement, 11, transaction.getDescription(), String.class);
+    }
+    
+    private <T> void bindNullable(Statement statement, int index, T value, Class<T> type) {
+        if (value == null) {
+            statement.bindNull(index, type);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+}
@@ -3,18 +3,24 @@ package com.curso.reactivebanking.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
+import com.curso.reactivebanking.dto.AccountBalanceDTO;
 import com.curso.reactivebanking.dto.AccountDTO;
 import com.curso.reactivebanking.exception.AccountNotFoundException;
 import com.curso.reactivebanking.exception.DuplicateAccountException;
+import com.curso.reactivebanking.ledger.BalanceLedger;
 import com.curso.reactivebanking.model.Account;
+import com.curso.reactivebanking.repository.AccountCache;
 import com.curso.reactivebanking.repository.AccountRepository;
+import com.curso.reactivebanking.stream.AccountBalanceStream;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
@@ -23,6 +29,10 @@ import java.util.UUID;
 public class AccountService {
     
     private final AccountRepository accountRepository;
+    private final BalanceLedger balanceLedger;
+    private final AccountBalanceStream accountBalanceStream;
+    private final AccountCache accountCache;
+    private final TransactionalOperator transactionalOperator;
     
     /**
      * Crea una nueva cuenta
@@ -46,6 +56,7 @@ public class AccountService {
                 
                 return accountRepository.save(account);
             })
+            .flatMap(saved -> balanceLedger.accountSaved(saved).thenReturn(saved))
             .map(this::mapToDTO)
             .doOnSuccess(dto -> log.info("Cuenta creada exitosamente: {}", dto.getAccountNumber()))
             .doOnError(error -> log.error("Error creando cuenta: {}", error.getMessage()));
@@ -57,8 +68,9 @@ public class AccountService {
     public Mono<AccountDTO> getAccountById(UUID accountId) {
         log.debug("Buscando cuenta por ID: {}", accountId);
         
-        return accountRepository.findById(accountId)
+        return accountCache.findById(accountId)
             .switchIfEmpty(Mono.error(new AccountNotFoundException(accountId)))
+            .flatMap(balanceLedger::refreshBalance)
             .map(this::mapToDTO)
             .doOnSuccess(dto -> log.debug("Cuenta encontrada: {}", dto.getAccountNumber()));
     }
@@ -69,8 +81,9 @@ public class AccountService {
     public Mono<AccountDTO> getAccountByNumber(String accountNumber) {
         log.debug("Buscando cuenta por número: {}", accountNumber);
         
-        return accountRepository.findByAccountNumber(accountNumber)
+        return accountCache.findByAccountNumber(accountNumber)
             .switchIfEmpty(Mono.error(new AccountNotFoundException(accountNumber)))
+            .flatMap(balanceLedger::refreshBalance)
             .map(this::mapToDTO)
             .doOnSuccess(dto -> log.debug("Cuenta encontrada: {}", dto.getAccountNumber()));
     }
@@ -82,17 +95,20 @@ public class AccountService {
         log.debug("Obteniendo todas las cuentas");
         
         return accountRepository.findAll()
+            .concatMap(balanceLedger::refreshBalance)
             .map(this::mapToDTO)
             .doOnComplete(() -> log.debug("Consulta de todas las cuentas completada"));
     }
     
     /**
-     * Actualiza una cuenta
+     * Actualiza una cuenta. El guardado y la notificación al almacén de balances forman una sola
+     * transacción que bloquea antes el balance de la cuenta
      */
     public Mono<AccountDTO> updateAccount(UUID accountId, AccountDTO accountDTO) {
         log.info("Actualizando cuenta: {}", accountId);
         
-        return accountRepository.findById(accountId)
+        return balanceLedger.lockForUpdate(accountId)
+            .then(accountRepository.findById(accountId))
             .switchIfEmpty(Mono.error(new AccountNotFoundException(accountId)))
             .flatMap(existingAccount -> {
                 // Verificar si el nuevo número de cuenta ya existe (si cambió)
@@ -109,6 +125,10 @@ public class AccountService {
                 }
             })
             .flatMap(accountRepository::save)
+            .flatMap(saved -> balanceLedger.accountSaved(saved).thenReturn(saved))
+            .as(transactionalOperator::transactional)
+            .flatMap(saved -> accountCache.invalidate(List.of(saved.getId())).thenReturn(saved))
+            .doOnNext(saved -> accountBalanceStream.balancesChanged(List.of(saved.getId())))
             .map(this::mapToDTO)
             .doOnSuccess(dto -> log.info("Cuenta actualizada exitosamente: {}", dto.getAccountNumber()))
             .doOnError(error -> log.error("Error actualizando cuenta: {}", error.getMessage()));
@@ -120,24 +140,33 @@ public class AccountService {
     public Mono<BigDecimal> getAccountBalance(UUID accountId) {
         log.debug("Obteniendo balance de cuenta: {}", accountId);
         
-        return accountRepository.findById(accountId)
+        return balanceLedger.getBalance(accountId)
             .switchIfEmpty(Mono.error(new AccountNotFoundException(accountId)))
-            .map(Account::getBalance)
             .doOnSuccess(balance -> log.debug("Balance obtenido: {}", balance));
     }
     
+    /**
+     * Stream del balance de una cuenta: el actual y después sus cambios, agrupados por ventana
+     */
+    public Flux<AccountBalanceDTO> getBalanceStream(UUID accountId) {
+        log.debug("Cliente conectado al stream de balance de la cuenta: {}", accountId);
+        
+        return accountBalanceStream.subscribe(accountId)
+            .doOnCancel(() -> log.debug("Cliente desconectado del stream de balance de la cuenta: {}", accountId));
+    }
+    
     /**
      * Verifica si una cuenta existe
      */
     public Mono<Boolean> accountExists(UUID accountId) {
-        return accountRepository.existsById(accountId);
+        return accountCache.existsById(accountId);
     }
     
     /**
      * Verifica si una cuenta tiene fondos suficientes
      */
     public Mono<Boolean> hasSufficientFunds(UUID accountId, BigDecimal amount) {
-        return accountRepository.hasSufficientFunds(accountId, amount);
+        return balanceLedger.hasSufficientFunds(accountId, amount);
     }
     
     /**
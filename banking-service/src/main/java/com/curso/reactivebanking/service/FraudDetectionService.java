@@ -1,18 +1,27 @@
 package com.curso.reactivebanking.service;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.curso.reactivebanking.dto.TransactionCursor;
+import com.curso.reactivebanking.exception.TransactionNotFoundException;
+import com.curso.reactivebanking.fraud.AccountProfileStore;
+import com.curso.reactivebanking.fraud.DeferredFraudScorer;
+import com.curso.reactivebanking.fraud.FraudFinding;
+import com.curso.reactivebanking.fraud.FraudReason;
+import com.curso.reactivebanking.fraud.FraudRuleEngine;
+import com.curso.reactivebanking.fraud.FraudVerdict;
 import com.curso.reactivebanking.model.Transaction;
 import com.curso.reactivebanking.model.TransactionStatus;
 import com.curso.reactivebanking.repository.TransactionRepository;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Slf4j
@@ -21,18 +30,12 @@ import reactor.core.publisher.Mono;
 public class FraudDetectionService {
     
     private final TransactionRepository transactionRepository;
+    private final FraudRuleEngine fraudRuleEngine;
+    private final DeferredFraudScorer deferredFraudScorer;
+    private final AccountProfileStore accountProfileStore;
     
-    @Value("${banking.fraud.high-amount-threshold:5000.00}")
-    private BigDecimal highAmountThreshold;
-    
-    @Value("${banking.fraud.max-transactions-per-minute:3}")
-    private int maxTransactionsPerMinute;
-    
-    @Value("${banking.fraud.suspicious-hours.start:22}")
-    private int suspiciousHoursStart;
-    
-    @Value("${banking.fraud.suspicious-hours.end:6}")
-    private int suspiciousHoursEnd;
+    @Value("${banking.fraud.suspicious.page-size:500}")
+    private int pageSize;
     
     /**
      * Analiza una transacción para detectar fraude
@@ -40,95 +43,107 @@ public class FraudDetectionService {
     public Mono<Transaction> analyzeTransaction(Transaction transaction) {
         log.debug("Analizando transacción para fraude: {}", transaction.getId());
         
-        return Mono.just(transaction)
-            .flatMap(this::checkHighAmountRule)
-            .flatMap(this::checkFrequencyRule)
-            .flatMap(this::checkSuspiciousHoursRule)
-            .doOnNext(t -> log.info("Análisis de fraude completado para transacción {}: Estado={}, Análisis={}", 
-                    t.getId(), t.getStatus(), t.getFraudAnalysis()));
+        return fraudRuleEngine.evaluate(transaction)
+            .map(findings -> applyFindings(transaction, findings))
+            .doOnNext(t -> log.debug("Análisis de fraude completado para transacción {}: Estado={}, Motivos={}", 
+                    t.getId(), t.getStatus(), t.getFraudReasons()));
     }
     
     /**
-     * Regla: Transacciones de alto monto son sospechosas
+     * Analiza una transacción persistida sin modificarla en la base de datos
      */
-    private Mono<Transaction> checkHighAmountRule(Transaction transaction) {
-        if (transaction.getAmount().compareTo(highAmountThreshold) > 0) {
-            transaction.setStatus(TransactionStatus.PENDING);
-            addToFraudAnalysis(transaction, "Alto monto: " + transaction.getAmount());
-            log.warn("Transacción {} marcada como sospechosa por alto monto: {}", 
-                    transaction.getId(), transaction.getAmount());
-        }
-        return Mono.just(transaction);
+    public Mono<Transaction> analyzeTransactionById(UUID transactionId) {
+        return transactionRepository.findById(transactionId)
+            .switchIfEmpty(Mono.error(new TransactionNotFoundException(transactionId)))
+            .flatMap(this::analyzeTransaction);
     }
     
     /**
-     * Regla: Múltiples transacciones en poco tiempo son sospechosas
+     * Análisis de la vía de la transferencia. En modo DEFERRED solo evalúa las reglas síncronas:
+     * si no detectan nada la transacción se aprueba y las reglas asíncronas se evalúan tras
+     * confirmarla (completeScreening). Si la cola diferida está llena se evalúan todas ahora
      */
-    private Mono<Transaction> checkFrequencyRule(Transaction transaction) {
-        LocalDateTime oneMinuteAgo = LocalDateTime.now().minusMinutes(1);
+    public Mono<Transaction> screenTransaction(Transaction transaction) {
+        if (!deferredFraudScorer.isEnabled() || deferredFraudScorer.shouldScoreInline()) {
+            return analyzeTransaction(transaction);
+        }
         
-        return transactionRepository.countTransactionsFromAccountSince(
-                transaction.getFromAccountId(), oneMinuteAgo)
-            .map(count -> {
-                if (count >= maxTransactionsPerMinute) {
-                    transaction.setStatus(TransactionStatus.PENDING);
-                    addToFraudAnalysis(transaction, 
-                        String.format("Frecuencia alta: %d transacciones en 1 minuto", count));
-                    log.warn("Transacción {} marcada como sospechosa por alta frecuencia: {} transacciones", 
-                            transaction.getId(), count);
-                }
-                return transaction;
-            });
+        return Mono.fromCallable(() -> {
+            List<FraudFinding> findings = fraudRuleEngine.evaluateSynchronous(transaction);
+            applyFindings(transaction, findings);
+            transaction.setFraudScoringDeferred(findings.isEmpty());
+            return transaction;
+        });
     }
     
     /**
-     * Regla: Transacciones en horarios inusuales son sospechosas
+     * Tras confirmar la transacción: actualiza el perfil de la cuenta si se aprobó y la entrega
+     * al análisis diferido si se aprobó por la vía rápida
      */
-    private Mono<Transaction> checkSuspiciousHoursRule(Transaction transaction) {
-        int hour = transaction.getTimestamp().getHour();
-        
-        // Horario sospechoso: 22:00 - 06:00
-        boolean isSuspiciousHour = hour >= suspiciousHoursStart || hour <= suspiciousHoursEnd;
-        
-        if (isSuspiciousHour) {
-            // Solo marcar como pendiente si no está ya rechazada
-            if (transaction.getStatus() != TransactionStatus.REJECTED) {
-                transaction.setStatus(TransactionStatus.PENDING);
-            }
-            addToFraudAnalysis(transaction, "Horario inusual: " + hour + ":00");
-            log.warn("Transacción {} marcada como sospechosa por horario inusual: {}:00", 
-                    transaction.getId(), hour);
-        }
+    public void completeScreening(Transaction transaction) {
+        accountProfileStore.record(transaction);
+        deferredFraudScorer.submit(transaction);
+    }
+    
+    /**
+     * Fija el estado según el indicador más severo y marca sus motivos; el texto no se compone aquí
+     */
+    private Transaction applyFindings(Transaction transaction, List<FraudFinding> findings) {
+        transaction.setFraudReasons(0);
+        transaction.setFraudVelocity(null);
+        transaction.setFraudAmountZScore(null);
+        transaction.setFraudFanOut(null);
+        transaction.setFraudAnalysis(null);
         
-        // Si no se detectó fraude, aprobar la transacción
-        if (transaction.getStatus() == null || transaction.getStatus() == TransactionStatus.PENDING) {
-            if (transaction.getFraudAnalysis() == null || transaction.getFraudAnalysis().trim().isEmpty()) {
-                transaction.setStatus(TransactionStatus.APPROVED);
-                transaction.setFraudAnalysis("Sin indicadores de fraude");
+        FraudVerdict verdict = null;
+        for (FraudFinding finding : findings) {
+            if (verdict == null || finding.verdict().compareTo(verdict) > 0) {
+                verdict = finding.verdict();
             }
+            finding.reason().apply(transaction, finding.detail());
         }
-        
-        return Mono.just(transaction);
+        transaction.setStatus(verdict == null ? TransactionStatus.APPROVED : verdict.status());
+        return transaction;
     }
     
     /**
-     * Agrega información al análisis de fraude
+     * Página de transacciones sospechosas (pendientes, rechazadas o en revisión), o de las marcadas
+     * con alguno de los motivos indicados, anteriores al cursor y de la más reciente a la más antigua.
+     * El tamaño está acotado por banking.fraud.suspicious.page-size
      */
-    private void addToFraudAnalysis(Transaction transaction, String analysis) {
-        String currentAnalysis = transaction.getFraudAnalysis();
-        if (currentAnalysis == null || currentAnalysis.trim().isEmpty()) {
-            transaction.setFraudAnalysis(analysis);
-        } else {
-            transaction.setFraudAnalysis(currentAnalysis + "; " + analysis);
+    public Flux<Transaction> getSuspiciousTransactions(Collection<FraudReason> reasons, TransactionCursor after, int limit) {
+        if (limit < 1) {
+            return Flux.error(new IllegalArgumentException("El límite debe ser positivo: " + limit));
         }
+        return findSuspiciousPage(reasons.isEmpty() ? List.of() : FraudReason.masksContainingAny(reasons), after,
+                Math.min(limit, pageSize));
     }
     
     /**
-     * Obtiene todas las transacciones sospechosas
+     * Todas las transacciones sospechosas anteriores al cursor, leídas por páginas de
+     * banking.fraud.suspicious.page-size: cada consulta es corta y solo se pide la siguiente
+     * página cuando el cliente ha consumido la anterior
      */
-    public Mono<List<Transaction>> getSuspiciousTransactions() {
-        return transactionRepository.findSuspiciousTransactions()
+    public Flux<Transaction> streamSuspiciousTransactions(Collection<FraudReason> reasons, TransactionCursor after) {
+        Collection<Integer> masks = reasons.isEmpty() ? List.of() : FraudReason.masksContainingAny(reasons);
+        return findSuspiciousPage(masks, after, pageSize)
             .collectList()
-            .doOnNext(transactions -> log.info("Encontradas {} transacciones sospechosas", transactions.size()));
+            .expand(page -> page.size() < pageSize
+                ? Mono.empty()
+                : findSuspiciousPage(masks, TransactionCursor.of(page.get(page.size() - 1)), pageSize).collectList())
+            .concatMapIterable(page -> page, 1);
+    }
+    
+    /**
+     * Tamaño máximo de página de transacciones sospechosas
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+    
+    private Flux<Transaction> findSuspiciousPage(Collection<Integer> masks, TransactionCursor after, int limit) {
+        return masks.isEmpty()
+            ? transactionRepository.findSuspiciousTransactionsBefore(after.timestamp(), after.id(), limit)
+            : transactionRepository.findByFraudReasonsInBefore(masks, after.timestamp(), after.id(), limit);
     }
-} 
\ No newline at end of file
+}
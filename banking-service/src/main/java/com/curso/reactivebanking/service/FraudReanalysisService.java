@@ -0,0 +1,137 @@
+package com.curso.reactivebanking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.curso.reactivebanking.dto.FraudReanalysisProgressDTO;
+import com.curso.reactivebanking.dto.FraudReanalysisRequestDTO;
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.model.TransactionStatus;
+import com.curso.reactivebanking.repository.TransactionRepository;
+import com.curso.reactivebanking.repository.TransferBatchRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reanálisis masivo de fraude, por ejemplo tras cambiar umbrales. Las transacciones se leen en
+ * streaming, se analizan en banking.fraud.reanalysis.parallelism carriles paralelos con prefetch
+ * acotado y las que cambian se actualizan por lotes; la lectura avanza al ritmo de las escrituras
+ * y del cliente, de modo que la memoria no depende del número de filas.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FraudReanalysisService {
+    
+    private final TransactionRepository transactionRepository;
+    private final TransferBatchRepository transferBatchRepository;
+    private final FraudDetectionService fraudDetectionService;
+    
+    @Value("${banking.fraud.reanalysis.parallelism:4}")
+    private int parallelism;
+    
+    @Value("${banking.fraud.reanalysis.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${banking.fraud.reanalysis.max-wait:200ms}")
+    private Duration batchMaxWait;
+    
+    /**
+     * Reanaliza las transacciones indicadas y emite el progreso acumulado tras cada lote
+     */
+    public Flux<FraudReanalysisProgressDTO> reanalyze(FraudReanalysisRequestDTO request) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicLong processed = new AtomicLong();
+            AtomicLong flagged = new AtomicLong();
+            AtomicLong changed = new AtomicLong();
+            
+            return selectTransactions(request)
+                .parallel(parallelism, batchSize)
+                .runOn(Schedulers.parallel(), batchSize)
+                .flatMap(this::reanalyzeTransaction)
+                .sequential()
+                .bufferTimeout(batchSize, batchMaxWait, true)
+                .concatMap(batch -> persistChanged(batch, request.isDryRun())
+                    .then(Mono.fromSupplier(() -> {
+                        processed.addAndGet(batch.size());
+                        for (Reanalyzed reanalyzed : batch) {
+                            if (reanalyzed.transaction().getFraudReasons() != 0) {
+                                flagged.incrementAndGet();
+                            }
+                            if (reanalyzed.changed()) {
+                                changed.incrementAndGet();
+                            }
+                        }
+                        return progress(start, processed, flagged, changed, false);
+                    })))
+                .concatWith(Mono.fromSupplier(() -> progress(start, processed, flagged, changed, true)))
+                .doOnComplete(() -> log.info("Reanálisis de fraude completado: {} transacciones, {} cambiadas",
+                        processed.get(), changed.get()));
+        });
+    }
+    
+    private Flux<Transaction> selectTransactions(FraudReanalysisRequestDTO request) {
+        if (request.getFrom() == null && request.getTo() == null) {
+            return transactionRepository.findByStatus(TransactionStatus.PENDING);
+        }
+        LocalDateTime from = request.getFrom() != null ? request.getFrom() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime to = request.getTo() != null ? request.getTo() : LocalDateTime.now();
+        return transactionRepository.findByTimestampBetween(from, to);
+    }
+    
+    /**
+     * Analiza la transacción y ajusta el estado: las ya ejecutadas pasan a REVIEW o vuelven a
+     * APPROVED; las pendientes y rechazadas conservan su estado y solo actualizan sus motivos
+     */
+    private Mono<Reanalyzed> reanalyzeTransaction(Transaction transaction) {
+        TransactionStatus previousStatus = transaction.getStatus();
+        int previousReasons = transaction.getFraudReasons();
+        
+        return fraudDetectionService.analyzeTransaction(transaction)
+            .map(analyzed -> {
+                analyzed.setStatus(switch (previousStatus) {
+                    case APPROVED, REVIEW -> analyzed.getFraudReasons() == 0
+                        ? TransactionStatus.APPROVED
+                        : TransactionStatus.REVIEW;
+                    default -> previousStatus;
+                });
+                boolean changed = analyzed.getStatus() != previousStatus || analyzed.getFraudReasons() != previousReasons;
+                return new Reanalyzed(analyzed, changed);
+            });
+    }
+    
+    private Mono<Long> persistChanged(List<Reanalyzed> batch, boolean dryRun) {
+        if (dryRun) {
+            return Mono.just(0L);
+        }
+        List<Transaction> changed = batch.stream()
+            .filter(Reanalyzed::changed)
+            .map(Reanalyzed::transaction)
+            .toList();
+        return transferBatchRepository.updateFraudAnalysis(changed);
+    }
+    
+    private static FraudReanalysisProgressDTO progress(long start, AtomicLong processed, AtomicLong flagged,
+                                                       AtomicLong changed, boolean completed) {
+        return FraudReanalysisProgressDTO.builder()
+            .processed(processed.get())
+            .flagged(flagged.get())
+            .changed(changed.get())
+            .elapsedMillis(Duration.ofNanos(System.nanoTime() - start).toMillis())
+            .completed(completed)
+            .build();
+    }
+    
+    private record Reanalyzed(Transaction transaction, boolean changed) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.curso.reactivebanking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Temporizadores con histograma de percentiles para las etapas del flujo de transferencias
+ * (banking.transfer.stage) y para cada regla de fraude (banking.fraud.rule).
+ * Cada medición se etiqueta con outcome=success|error|cancel.
+ */
+@Component
+@RequiredArgsConstructor
+public class PipelineMetrics {
+    
+    private static final String STAGE_TIMER = "banking.transfer.stage";
+    private static final String FRAUD_RULE_TIMER = "banking.fraud.rule";
+    
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    
+    /**
+     * Mide una etapa del flujo de transferencias desde la suscripción hasta su terminación
+     */
+    public <T> Function<Mono<T>, Mono<T>> stage(String stage) {
+        return mono -> timed(mono, STAGE_TIMER, "stage", stage);
+    }
+    
+    /**
+     * Mide una regla de fraude desde la suscripción hasta su terminación
+     */
+    public <T> Function<Mono<T>, Mono<T>> fraudRule(String rule) {
+        return mono -> timed(mono, FRAUD_RULE_TIMER, "rule", rule);
+    }
+    
+    /**
+     * Mide una etapa síncrona del flujo de transferencias
+     */
+    public void recordStage(String stage, Runnable runnable) {
+        record(STAGE_TIMER, "stage", stage, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Mide la evaluación síncrona de una regla de fraude
+     */
+    public <T> T recordFraudRule(String rule, Supplier<T> evaluation) {
+        return record(FRAUD_RULE_TIMER, "rule", rule, evaluation);
+    }
+    
+    private <T> T record(String name, String tagKey, String tagValue, Supplier<T> supplier) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = supplier.get();
+            outcome = "success";
+            return result;
+        } finally {
+            timer(name, tagKey, tagValue, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * El valor de un Mono cuenta como éxito aunque el consumidor cancele antes de la terminación
+     */
+    private <T> Mono<T> timed(Mono<T> mono, String name, String tagKey, String tagValue) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            AtomicBoolean stopped = new AtomicBoolean();
+            Consumer<String> stop = outcome -> {
+                if (stopped.compareAndSet(false, true)) {
+                    sample.stop(timer(name, tagKey, tagValue, outcome));
+                }
+            };
+            return mono
+                .doOnSuccess(value -> stop.accept("success"))
+                .doOnError(error -> stop.accept("error"))
+                .doOnCancel(() -> stop.accept("cancel"));
+        });
+    }
+    
+    private Timer timer(String name, String tagKey, String tagValue, String outcome) {
+        return timers.computeIfAbsent(name + '|' + tagValue + '|' + outcome, key -> Timer.builder(name)
+            .tag(tagKey, tagValue)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry));
+    }
+}
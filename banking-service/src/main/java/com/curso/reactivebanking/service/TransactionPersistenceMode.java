@@ -0,0 +1,16 @@
+package com.curso.reactivebanking.service;
+
+/**
+ * Forma de persistir la fila de cada transferencia
+ */
+public enum TransactionPersistenceMode {
+    /**
+     * Inserta la transacción como PENDING antes del análisis de fraude y la actualiza con el estado final
+     */
+    TWO_PHASE,
+    
+    /**
+     * Analiza la transacción sin persistir, con el ID generado de antemano, y la inserta una sola vez con el estado final
+     */
+    SINGLE_WRITE
+}
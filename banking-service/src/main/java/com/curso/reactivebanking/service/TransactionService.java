@@ -1,27 +1,49 @@
 package com.curso.reactivebanking.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
 import com.curso.reactivebanking.dto.TransactionDTO;
+import com.curso.reactivebanking.dto.TransactionStatsDTO;
 import com.curso.reactivebanking.dto.TransferRequestDTO;
 import com.curso.reactivebanking.exception.AccountNotFoundException;
 import com.curso.reactivebanking.exception.InsufficientFundsException;
 import com.curso.reactivebanking.exception.TransactionNotFoundException;
+import com.curso.reactivebanking.fraud.AccountFanOutTracker;
+import com.curso.reactivebanking.fraud.AccountVelocityTracker;
+import com.curso.reactivebanking.fraud.FraudReason;
+import com.curso.reactivebanking.ledger.BalanceLedger;
 import com.curso.reactivebanking.model.Transaction;
 import com.curso.reactivebanking.model.TransactionStatus;
-import com.curso.reactivebanking.repository.AccountRepository;
+import com.curso.reactivebanking.repository.AccountCache;
 import com.curso.reactivebanking.repository.TransactionRepository;
+import com.curso.reactivebanking.repository.TransferBatchRepository;
+import com.curso.reactivebanking.stream.AccountBalanceStream;
+import com.curso.reactivebanking.stream.TransactionStatsAggregator;
+import com.curso.reactivebanking.stream.TransactionStreamFilter;
+import com.curso.reactivebanking.stream.TransactionStreamHub;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 
 @Slf4j
@@ -30,17 +52,42 @@ import java.util.UUID;
 public class TransactionService {
     
     private final TransactionRepository transactionRepository;
-    private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
     private final FraudDetectionService fraudDetectionService;
+    private final TransferBatchRepository transferBatchRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final TransferLaneScheduler transferLaneScheduler;
+    private final BalanceLedger balanceLedger;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final MeterRegistry meterRegistry;
+    private final PipelineMetrics pipelineMetrics;
+    private final AccountVelocityTracker velocityTracker;
+    private final AccountFanOutTracker fanOutTracker;
+    private final TransactionStreamHub transactionStreamHub;
+    private final AccountBalanceStream accountBalanceStream;
+    private final TransactionStatsAggregator transactionStatsAggregator;
     
-    // Sink para streaming de transacciones en tiempo real
-    private final Sinks.Many<TransactionDTO> transactionSink = 
-        Sinks.many().multicast().onBackpressureBuffer();
+    @Value("${banking.transfer.persistence-mode:TWO_PHASE}")
+    private TransactionPersistenceMode persistenceMode;
+    
+    @Value("${banking.transfer.lanes.enabled:false}")
+    private boolean lanesEnabled;
+    
+    @Value("${banking.transfer.batch.chunk-size:500}")
+    private int batchChunkSize;
+    
+    @Value("${banking.transfer.batch.max-wait:200ms}")
+    private Duration batchMaxWait;
+    
+    @Value("${banking.transfer.batch.fraud-concurrency:8}")
+    private int batchFraudConcurrency;
+    
+    @Value("${banking.transfer.batch.max-retries:3}")
+    private int batchMaxRetries;
     
     /**
      * Realiza una transferencia entre cuentas
      */
-    @Transactional
     public Mono<TransactionDTO> transfer(TransferRequestDTO transferRequest) {
         log.info("Iniciando transferencia: {} -> {}, monto: {}", 
                 transferRequest.getFromAccountId(), 
@@ -52,18 +99,50 @@ public class TransactionService {
             return Mono.error(new IllegalArgumentException("Las cuentas origen y destino no pueden ser la misma"));
         }
         
-        return validateAccountsExist(transferRequest.getFromAccountId(), transferRequest.getToAccountId())
-            .then(validateSufficientFunds(transferRequest.getFromAccountId(), transferRequest.getAmount()))
-            .then(createTransaction(transferRequest))
-            .flatMap(fraudDetectionService::analyzeTransaction)
+        if (lanesEnabled) {
+            return transferLaneScheduler.submit(
+                transferRequest.getFromAccountId(),
+                transferRequest.getToAccountId(),
+                () -> executeTransferPipeline(transferRequest));
+        }
+        return executeTransferPipeline(transferRequest);
+    }
+    
+    /**
+     * Valida, analiza y ejecuta la transferencia dentro de una transacción
+     */
+    private Mono<TransactionDTO> executeTransferPipeline(TransferRequestDTO transferRequest) {
+        return balanceLedger.validateTransfer(transferRequest.getFromAccountId(),
+                transferRequest.getToAccountId(), transferRequest.getAmount())
+            .transform(pipelineMetrics.stage("validation"))
+            .then(createTransaction(transferRequest)
+                .transform(pipelineMetrics.stage("creation")))
+            .flatMap(transaction -> fraudDetectionService.screenTransaction(transaction)
+                .transform(pipelineMetrics.stage("fraud")))
             .flatMap(this::processTransaction)
+            .as(transactionalOperator::transactional)
+            .transform(pipelineMetrics.stage("transaction"))
+            .doOnNext(this::notifyBalancesChanged)
+            .doOnNext(fraudDetectionService::completeScreening)
             .map(this::mapToDTO)
-            .doOnSuccess(this::publishTransaction)
+            .doOnSuccess(dto -> pipelineMetrics.recordStage("publish", () -> publishTransaction(dto)))
             .doOnSuccess(dto -> log.info("Transferencia completada: {}, Estado: {}", 
                     dto.getId(), dto.getStatus()))
             .doOnError(error -> log.error("Error en transferencia: {}", error.getMessage()));
     }
     
+    /**
+     * Realiza transferencias por lotes. Las peticiones se agrupan en bloques y cada bloque
+     * se persiste en una única transacción R2DBC con inserciones y actualizaciones de balance por lotes.
+     * Devuelve un resultado por petición en el mismo orden de entrada.
+     */
+    public Flux<TransactionDTO> transferBatch(Flux<TransferRequestDTO> transferRequests) {
+        return transferRequests
+            .bufferTimeout(batchChunkSize, batchMaxWait, true)
+            .concatMap(this::processTransferChunk)
+            .doOnError(error -> log.error("Error en transferencia por lotes: {}", error.getMessage()));
+    }
+    
     /**
      * Obtiene una transacción por ID
      */
@@ -82,7 +161,7 @@ public class TransactionService {
     public Flux<TransactionDTO> getAccountTransactions(UUID accountId) {
         log.debug("Obteniendo transacciones de cuenta: {}", accountId);
         
-        return accountRepository.existsById(accountId)
+        return accountCache.existsById(accountId)
             .flatMapMany(exists -> {
                 if (!exists) {
                     return Flux.error(new AccountNotFoundException(accountId));
@@ -94,67 +173,49 @@ public class TransactionService {
     }
     
     /**
-     * Stream de transacciones en tiempo real
+     * Stream de transacciones en tiempo real que cumplen el filtro, como frames SSE con ID ya
+     * codificados y compartidos entre clientes; con lastEventId reenvía primero los eventos
+     * conservados posteriores a él
      */
-    public Flux<TransactionDTO> getTransactionStream() {
+    public Flux<byte[]> getTransactionStream(TransactionStreamFilter filter, Long lastEventId) {
         log.debug("Cliente conectado al stream de transacciones");
-        return transactionSink.asFlux()
+        return transactionStreamHub.subscribeFrames(filter, lastEventId)
             .doOnCancel(() -> log.debug("Cliente desconectado del stream"));
     }
     
     /**
-     * Obtiene las últimas transacciones
+     * Volumen de transacciones del último segundo, minuto y hora
      */
-    public Flux<TransactionDTO> getLatestTransactions(int limit) {
-        log.debug("Obteniendo las últimas {} transacciones", limit);
-        
-        return transactionRepository.findLatestTransactions(limit)
-            .map(this::mapToDTO)
-            .doOnComplete(() -> log.debug("Consulta de últimas transacciones completada"));
+    public TransactionStatsDTO getStats() {
+        return transactionStatsAggregator.snapshot();
     }
     
     /**
-     * Valida que ambas cuentas existan
+     * Feed periódico del volumen de transacciones
      */
-    private Mono<Void> validateAccountsExist(UUID fromAccountId, UUID toAccountId) {
-        return Mono.zip(
-                accountRepository.existsById(fromAccountId),
-                accountRepository.existsById(toAccountId)
-            )
-            .flatMap(tuple -> {
-                boolean fromExists = tuple.getT1();
-                boolean toExists = tuple.getT2();
-                
-                if (!fromExists) {
-                    return Mono.error(new AccountNotFoundException(fromAccountId));
-                }
-                if (!toExists) {
-                    return Mono.error(new AccountNotFoundException(toAccountId));
-                }
-                
-                return Mono.empty();
-            });
+    public Flux<TransactionStatsDTO> getStatsStream() {
+        log.debug("Cliente conectado al feed de volumen de transacciones");
+        return transactionStatsAggregator.feed();
     }
     
     /**
-     * Valida que la cuenta tenga fondos suficientes
+     * Obtiene las últimas transacciones
      */
-    private Mono<Void> validateSufficientFunds(UUID accountId, BigDecimal amount) {
-        return accountRepository.hasSufficientFunds(accountId, amount)
-            .flatMap(hasFunds -> {
-                if (!hasFunds) {
-                    return Mono.error(new InsufficientFundsException(accountId, amount));
-                }
-                return Mono.empty();
-            });
+    public Flux<TransactionDTO> getLatestTransactions(int limit) {
+        log.debug("Obteniendo las últimas {} transacciones", limit);
+        
+        return transactionRepository.findLatestTransactions(limit)
+            .map(this::mapToDTO)
+            .doOnComplete(() -> log.debug("Consulta de últimas transacciones completada"));
     }
     
     /**
-     * Crea una nueva transacción
+     * Crea una nueva transacción. En modo SINGLE_WRITE no se persiste todavía: lleva el ID
+     * generado de antemano y se inserta una sola vez con su estado final
      */
     private Mono<Transaction> createTransaction(TransferRequestDTO transferRequest) {
         Transaction transaction = Transaction.builder()
-//        	.id(UUID.randomUUID())
+            .id(persistenceMode == TransactionPersistenceMode.SINGLE_WRITE ? UUID.randomUUID() : null)
             .fromAccountId(transferRequest.getFromAccountId())
             .toAccountId(transferRequest.getToAccountId())
             .amount(transferRequest.getAmount())
@@ -163,7 +224,53 @@ public class TransactionService {
             .status(TransactionStatus.PENDING)
             .build();
         
-        return transactionRepository.save(transaction);
+        if (persistenceMode == TransactionPersistenceMode.SINGLE_WRITE) {
+            return Mono.just(transaction)
+                .doOnNext(this::recordActivity);
+        }
+        return saveTransaction(transaction)
+            .doOnNext(this::recordActivity);
+    }
+    
+    /**
+     * Avisa al stream de balances de las cuentas de una transferencia ejecutada. Se llama tras el
+     * commit para que la lectura del balance vea la transferencia
+     */
+    private void notifyBalancesChanged(Transaction transaction) {
+        if (transaction.getStatus() == TransactionStatus.APPROVED) {
+            accountBalanceStream.balancesChanged(List.of(transaction.getFromAccountId(), transaction.getToAccountId()));
+        }
+    }
+    
+    /**
+     * Registra la transacción creada en los contadores en memoria de las reglas de fraude
+     */
+    private void recordActivity(Transaction transaction) {
+        velocityTracker.record(transaction);
+        fanOutTracker.record(transaction);
+    }
+    
+    /**
+     * Persiste la transacción con su estado final: actualización en TWO_PHASE, inserción única en SINGLE_WRITE
+     */
+    private Mono<Transaction> persistFinalState(Transaction transaction) {
+        if (persistenceMode == TransactionPersistenceMode.SINGLE_WRITE) {
+            return entityTemplate.insert(transaction)
+                .doOnSuccess(saved -> countTransactionWrites(1));
+        }
+        return saveTransaction(transaction);
+    }
+    
+    private Mono<Transaction> saveTransaction(Transaction transaction) {
+        return transactionRepository.save(transaction)
+            .doOnSuccess(saved -> countTransactionWrites(1));
+    }
+    
+    /**
+     * Cuenta las filas escritas (inserciones y actualizaciones) en la tabla transactions
+     */
+    private void countTransactionWrites(long writes) {
+        meterRegistry.counter("banking.transaction.writes").increment(writes);
     }
     
     /**
@@ -174,11 +281,13 @@ public class TransactionService {
             case APPROVED -> executeTransfer(transaction);
             case PENDING -> {
                 log.warn("Transacción {} requiere revisión manual", transaction.getId());
-                yield transactionRepository.save(transaction);
+                yield persistFinalState(transaction)
+                    .transform(pipelineMetrics.stage("persistence"));
             }
             case REJECTED -> {
                 log.warn("Transacción {} rechazada por fraude", transaction.getId());
-                yield transactionRepository.save(transaction);
+                yield persistFinalState(transaction)
+                    .transform(pipelineMetrics.stage("persistence"));
             }
             default -> Mono.error(new IllegalStateException("Estado de transacción inválido"));
         };
@@ -190,23 +299,10 @@ public class TransactionService {
     private Mono<Transaction> executeTransfer(Transaction transaction) {
         log.debug("Ejecutando transferencia: {}", transaction.getId());
         
-        return Mono.zip(
-                // Debitar cuenta origen
-                accountRepository.updateBalanceById(
-                    transaction.getFromAccountId(), 
-                    transaction.getAmount().negate()
-                ),
-                // Acreditar cuenta destino
-                accountRepository.updateBalanceById(
-                    transaction.getToAccountId(), 
-                    transaction.getAmount()
-                )
-            )
-            .flatMap(tuple -> {
-                int debitResult = tuple.getT1();
-                int creditResult = tuple.getT2();
-                
-                if (debitResult > 0 && creditResult > 0) {
+        return balanceLedger.applyTransfer(transaction)
+            .transform(pipelineMetrics.stage("execution"))
+            .flatMap(applied -> {
+                if (applied) {
                     transaction.setStatus(TransactionStatus.APPROVED);
                     log.info("Transferencia ejecutada exitosamente: {}", transaction.getId());
                 } else {
@@ -215,21 +311,202 @@ public class TransactionService {
                     log.error("Error ejecutando transferencia: {}", transaction.getId());
                 }
                 
-                return transactionRepository.save(transaction);
+                return persistFinalState(transaction)
+                    .transform(pipelineMetrics.stage("persistence"));
+            });
+    }
+    
+    /**
+     * Procesa un bloque de transferencias: valida cuentas con una sola consulta,
+     * analiza fraude y persiste el bloque completo en una transacción
+     */
+    private Flux<TransactionDTO> processTransferChunk(List<TransferRequestDTO> chunk) {
+        log.info("Procesando bloque de {} transferencias", chunk.size());
+        
+        List<BatchItem> items = chunk.stream()
+            .map(this::prepareBatchItem)
+            .toList();
+        Set<UUID> accountIds = collectAccountIds(items);
+        
+        return balanceLedger.getBalances(accountIds)
+            .map(Map::keySet)
+            .flatMapMany(existingIds -> Flux.fromIterable(items)
+                .map(item -> validateBatchItemAccounts(item, existingIds))
+                .doOnNext(item -> {
+                    if (item.transaction() != null) {
+                        recordActivity(item.transaction());
+                    }
+                }))
+            .flatMapSequential(this::analyzeBatchItem, batchFraudConcurrency)
+            .collectList()
+            .flatMap(analyzedItems -> persistBatch(analyzedItems, accountIds)
+                .as(transactionalOperator::transactional)
+                .retryWhen(Retry.max(batchMaxRetries)
+                    .filter(OptimisticLockingFailureException.class::isInstance)
+                    .doBeforeRetry(signal -> log.warn("Balances modificados durante el bloque, reintentando ({})",
+                            signal.totalRetries() + 1)))
+                .doOnNext(results -> {
+                    completeBatchScreening(analyzedItems, results);
+                    accountBalanceStream.balancesChanged(accountIds);
+                    // Se publica al confirmar el bloque, aunque el cliente deje de leer los resultados
+                    for (TransactionDTO result : results) {
+                        if (result.getId() != null) {
+                            publishTransaction(result);
+                        }
+                    }
+                }))
+            .flatMapIterable(results -> results);
+    }
+    
+    /**
+     * Crea la transacción de un elemento del lote con ID pre-generado, o registra el error de validación
+     */
+    private BatchItem prepareBatchItem(TransferRequestDTO request) {
+        if (request.getFromAccountId() == null || request.getToAccountId() == null) {
+            return BatchItem.failed(request, "Las cuentas origen y destino son obligatorias");
+        }
+        if (request.getAmount() == null || request.getAmount().signum() <= 0) {
+            return BatchItem.failed(request, "El monto debe ser positivo");
+        }
+        if (Objects.equals(request.getFromAccountId(), request.getToAccountId())) {
+            return BatchItem.failed(request, "Las cuentas origen y destino no pueden ser la misma");
+        }
+        
+        Transaction transaction = Transaction.builder()
+            .id(UUID.randomUUID())
+            .fromAccountId(request.getFromAccountId())
+            .toAccountId(request.getToAccountId())
+            .amount(request.getAmount())
+            .description(request.getDescription())
+            .timestamp(LocalDateTime.now())
+            .status(TransactionStatus.PENDING)
+            .build();
+        return new BatchItem(request, transaction, null);
+    }
+    
+    private Set<UUID> collectAccountIds(List<BatchItem> items) {
+        Set<UUID> accountIds = new HashSet<>();
+        for (BatchItem item : items) {
+            if (item.transaction() != null) {
+                accountIds.add(item.transaction().getFromAccountId());
+                accountIds.add(item.transaction().getToAccountId());
+            }
+        }
+        return accountIds;
+    }
+    
+    private BatchItem validateBatchItemAccounts(BatchItem item, Set<UUID> existingIds) {
+        if (item.transaction() == null) {
+            return item;
+        }
+        if (!existingIds.contains(item.transaction().getFromAccountId())) {
+            return BatchItem.failed(item.request(),
+                new AccountNotFoundException(item.transaction().getFromAccountId()).getMessage());
+        }
+        if (!existingIds.contains(item.transaction().getToAccountId())) {
+            return BatchItem.failed(item.request(),
+                new AccountNotFoundException(item.transaction().getToAccountId()).getMessage());
+        }
+        return item;
+    }
+    
+    private Mono<BatchItem> analyzeBatchItem(BatchItem item) {
+        if (item.transaction() == null) {
+            return Mono.just(item);
+        }
+        return fraudDetectionService.screenTransaction(item.transaction())
+            .thenReturn(item);
+    }
+    
+    /**
+     * Completa el análisis de fraude de las transacciones del bloque confirmado que se ejecutaron
+     */
+    private void completeBatchScreening(List<BatchItem> items, List<TransactionDTO> results) {
+        Set<UUID> executed = new HashSet<>();
+        for (TransactionDTO result : results) {
+            if (result.getStatus() == TransactionStatus.APPROVED) {
+                executed.add(result.getId());
+            }
+        }
+        for (BatchItem item : items) {
+            if (item.transaction() != null && executed.contains(item.transaction().getId())) {
+                fraudDetectionService.completeScreening(item.transaction());
+            }
+        }
+    }
+    
+    /**
+     * Planifica el bloque sobre los balances actuales y lo persiste: una inserción por lotes
+     * de las transacciones y una actualización por lotes de los deltas netos de cada cuenta
+     */
+    private Mono<List<TransactionDTO>> persistBatch(List<BatchItem> items, Set<UUID> accountIds) {
+        return balanceLedger.getBalances(accountIds)
+            .flatMap(balances -> {
+                Map<UUID, BigDecimal> runningBalances = new HashMap<>(balances);
+                // Ordenado por ID para bloquear las cuentas siempre en el mismo orden
+                Map<UUID, BigDecimal> deltas = new TreeMap<>();
+                List<Transaction> toInsert = new ArrayList<>();
+                List<Transaction> approved = new ArrayList<>();
+                List<TransactionDTO> results = new ArrayList<>(items.size());
+                
+                for (BatchItem item : items) {
+                    Transaction transaction = item.transaction();
+                    if (transaction == null) {
+                        results.add(item.toRejectedDTO());
+                        continue;
+                    }
+                    
+                    // Las cuentas se validaron antes de la transacción: pudieron eliminarse desde entonces
+                    BatchItem validated = validateBatchItemAccounts(item, runningBalances.keySet());
+                    if (validated.transaction() == null) {
+                        results.add(validated.toRejectedDTO());
+                        continue;
+                    }
+                    
+                    BigDecimal available = runningBalances.get(transaction.getFromAccountId());
+                    if (available.compareTo(transaction.getAmount()) < 0) {
+                        results.add(BatchItem.failed(item.request(),
+                            new InsufficientFundsException(transaction.getFromAccountId(), transaction.getAmount())
+                                .getMessage()).toRejectedDTO());
+                        continue;
+                    }
+                    
+                    if (transaction.getStatus() == TransactionStatus.APPROVED) {
+                        runningBalances.merge(transaction.getFromAccountId(), transaction.getAmount().negate(), BigDecimal::add);
+                        runningBalances.merge(transaction.getToAccountId(), transaction.getAmount(), BigDecimal::add);
+                        deltas.merge(transaction.getFromAccountId(), transaction.getAmount().negate(), BigDecimal::add);
+                        deltas.merge(transaction.getToAccountId(), transaction.getAmount(), BigDecimal::add);
+                        approved.add(transaction);
+                    }
+                    toInsert.add(transaction);
+                    results.add(mapToDTO(transaction));
+                }
+                
+                deltas.values().removeIf(delta -> delta.signum() == 0);
+                
+                return transferBatchRepository.insertAll(toInsert)
+                    .doOnNext(this::countTransactionWrites)
+                    .then(balanceLedger.applyBatch(approved, deltas))
+                    .then(Mono.fromCallable(() -> {
+                        log.info("Bloque persistido: {} transacciones, {} cuentas actualizadas",
+                                toInsert.size(), deltas.size());
+                        return results;
+                    }));
             });
     }
     
     /**
-     * Publica la transacción al stream en tiempo real
+     * Publica la transacción al stream en tiempo real y la suma a los agregados de volumen
      */
     private void publishTransaction(TransactionDTO transactionDTO) {
-        transactionSink.tryEmitNext(transactionDTO);
+        transactionStatsAggregator.record(transactionDTO);
+        transactionStreamHub.publish(transactionDTO);
     }
     
     /**
-     * Convierte Transaction a TransactionDTO
+     * Convierte Transaction a TransactionDTO, componiendo el texto del análisis de fraude
      */
-    private TransactionDTO mapToDTO(Transaction transaction) {
+    public TransactionDTO mapToDTO(Transaction transaction) {
         return TransactionDTO.builder()
             .id(transaction.getId())
             .fromAccountId(transaction.getFromAccountId())
@@ -237,8 +514,30 @@ public class TransactionService {
             .amount(transaction.getAmount())
             .timestamp(transaction.getTimestamp())
             .status(transaction.getStatus())
-            .fraudAnalysis(transaction.getFraudAnalysis())
+            .fraudReasons(FraudReason.fromMask(transaction.getFraudReasons()))
+            .fraudAnalysis(FraudReason.describe(transaction))
             .description(transaction.getDescription())
             .build();
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Elemento de un lote: la petición original y su transacción, o el motivo por el que se descartó
+     */
+    private record BatchItem(TransferRequestDTO request, Transaction transaction, String error) {
+        
+        static BatchItem failed(TransferRequestDTO request, String error) {
+            return new BatchItem(request, null, error);
+        }
+        
+        TransactionDTO toRejectedDTO() {
+            return TransactionDTO.builder()
+                .fromAccountId(request.getFromAccountId())
+                .toAccountId(request.getToAccountId())
+                .amount(request.getAmount())
+                .status(TransactionStatus.REJECTED)
+                .fraudAnalysis(error)
+                .description(request.getDescription())
+                .build();
+        }
+    }
+}
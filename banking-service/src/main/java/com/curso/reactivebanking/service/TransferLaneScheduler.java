@@ -0,0 +1,140 @@
+package com.curso.reactivebanking.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.curso.reactivebanking.exception.TransferLaneSaturatedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Planificador de transferencias en carriles serializados.
+ * Cada cuenta se asigna a un carril por hash; las transferencias que comparten cuenta
+ * se ejecutan en orden y las de cuentas distintas en paralelo.
+ * Una transferencia entre cuentas de carriles distintos ocupa ambos carriles, siempre
+ * en orden ascendente de carril para que no puedan formarse esperas circulares.
+ * Cada carril admite un número limitado de tareas pendientes; al llenarse, las nuevas
+ * transferencias se rechazan con {@link TransferLaneSaturatedException} en lugar de encolarse.
+ */
+@Slf4j
+@Component
+public class TransferLaneScheduler {
+    
+    private static final Duration EMIT_TIMEOUT = Duration.ofSeconds(1);
+    
+    private final List<Lane> lanes;
+    
+    public TransferLaneScheduler(@Value("${banking.transfer.lanes.count:16}") int laneCount,
+                                 @Value("${banking.transfer.lanes.queue-capacity:1024}") int queueCapacity,
+                                 MeterRegistry meterRegistry) {
+        if (laneCount <= 0) {
+            throw new IllegalArgumentException("banking.transfer.lanes.count debe ser mayor que cero");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("banking.transfer.lanes.queue-capacity debe ser mayor que cero");
+        }
+        
+        this.lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            Lane lane = new Lane(i, queueCapacity);
+            Gauge.builder("banking.transfer.lane.queue.depth", lane.depth, AtomicInteger::get)
+                .description("Transferencias encoladas o en ejecución en el carril")
+                .tag("lane", String.valueOf(i))
+                .register(meterRegistry);
+            lanes.add(lane);
+        }
+        log.info("Planificador de transferencias iniciado con {} carriles de capacidad {}", laneCount, queueCapacity);
+    }
+    
+    /**
+     * Ejecuta el trabajo en el carril (o carriles) de las cuentas origen y destino.
+     * Falla con {@link TransferLaneSaturatedException} si alguno de los carriles está lleno;
+     * si el lleno es el segundo, el primero se libera en cuanto se produce el rechazo.
+     */
+    public <T> Mono<T> submit(UUID fromAccountId, UUID toAccountId, Supplier<Mono<T>> work) {
+        int fromLane = laneOf(fromAccountId);
+        int toLane = laneOf(toAccountId);
+        
+        if (fromLane == toLane) {
+            return lanes.get(fromLane).submit(work);
+        }
+        
+        Lane first = lanes.get(Math.min(fromLane, toLane));
+        Lane second = lanes.get(Math.max(fromLane, toLane));
+        return first.submit(() -> second.submit(work));
+    }
+    
+    /**
+     * Número de tareas pendientes en un carril
+     */
+    public int queueDepth(int lane) {
+        return lanes.get(lane).depth.get();
+    }
+    
+    public int laneCount() {
+        return lanes.size();
+    }
+    
+    int laneOf(UUID accountId) {
+        long hash = accountId.getMostSignificantBits() ^ accountId.getLeastSignificantBits();
+        int mixed = (int) (hash ^ (hash >>> 32));
+        mixed ^= (mixed >>> 16);
+        return Math.floorMod(mixed, lanes.size());
+    }
+    
+    /**
+     * Carril de ejecución: una cola acotada consumida por un único suscriptor con concatMap.
+     * La profundidad cuenta las tareas encoladas y la que está en ejecución, así que nunca
+     * hay más tareas en la cola que la capacidad admitida.
+     */
+    private static final class Lane {
+        
+        private final int index;
+        private final int capacity;
+        private final Sinks.Many<Mono<Void>> queue;
+        private final AtomicInteger depth = new AtomicInteger();
+        
+        private Lane(int index, int capacity) {
+            this.index = index;
+            this.capacity = capacity;
+            this.queue = Sinks.many().unicast().onBackpressureBuffer(Queues.<Mono<Void>>get(capacity).get());
+            queue.asFlux()
+                .concatMap(task -> task)
+                .subscribe();
+        }
+        
+        private <T> Mono<T> submit(Supplier<Mono<T>> work) {
+            return Mono.create(sink -> {
+                if (depth.incrementAndGet() > capacity) {
+                    depth.decrementAndGet();
+                    sink.error(new TransferLaneSaturatedException(index, capacity));
+                    return;
+                }
+                
+                AtomicBoolean cancelled = new AtomicBoolean();
+                sink.onCancel(() -> cancelled.set(true));
+                
+                Mono<Void> task = Mono.defer(() -> cancelled.get() ? Mono.<T>empty() : work.get())
+                    .doOnSuccess(sink::success)
+                    .doOnError(sink::error)
+                    .onErrorResume(error -> Mono.empty())
+                    .doFinally(signal -> depth.decrementAndGet())
+                    .then();
+                
+                queue.emitNext(task, Sinks.EmitFailureHandler.busyLooping(EMIT_TIMEOUT));
+            });
+        }
+    }
+}
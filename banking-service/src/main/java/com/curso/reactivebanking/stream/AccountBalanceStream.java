@@ -0,0 +1,166 @@
+package com.curso.reactivebanking.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.dto.AccountBalanceDTO;
+import com.curso.reactivebanking.exception.AccountNotFoundException;
+import com.curso.reactivebanking.ledger.BalanceLedger;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stream del balance de cada cuenta con suscriptores. Los cambios se agrupan en ventanas de
+ * banking.stream.balance.window: el primer cambio abre la ventana y al cerrarla se lee el balance
+ * una sola vez y se envía si cambió, de modo que una ráfaga de transferencias produce un único
+ * evento con el último balance, compartido por todos los suscriptores de la cuenta.
+ * Las cuentas sin suscriptores no tienen estado ni generan lecturas.
+ */
+@Slf4j
+@Component
+public class AccountBalanceStream {
+    
+    private final BalanceLedger balanceLedger;
+    private final Duration window;
+    private final Map<UUID, AccountChannel> channels = new ConcurrentHashMap<>();
+    private final Counter refreshes;
+    private final Counter pushed;
+    
+    public AccountBalanceStream(BalanceLedger balanceLedger,
+                                MeterRegistry meterRegistry,
+                                @Value("${banking.stream.balance.window:250ms}") Duration window) {
+        this.balanceLedger = balanceLedger;
+        this.window = window;
+        
+        Gauge.builder("banking.stream.balance.accounts", channels, Map::size)
+            .description("Cuentas con suscriptores al stream de balance")
+            .register(meterRegistry);
+        this.refreshes = Counter.builder("banking.stream.balance.refreshes")
+            .description("Lecturas de balance para el stream, una por cuenta y ventana")
+            .register(meterRegistry);
+        this.pushed = Counter.builder("banking.stream.balance.pushed")
+            .description("Balances nuevos enviados a los suscriptores de una cuenta")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Balance actual de la cuenta y después cada cambio, agrupado por ventana.
+     * Falla con AccountNotFoundException si la cuenta no existe
+     */
+    public Flux<AccountBalanceDTO> subscribe(UUID accountId) {
+        return Flux.defer(() -> {
+            AccountChannel channel = acquire(accountId);
+            return channel.refresh()
+                .switchIfEmpty(Mono.error(new AccountNotFoundException(accountId)))
+                .thenMany(channel.sink.asFlux())
+                // Un suscriptor lento solo recibe el último balance pendiente
+                .onBackpressureLatest()
+                .doFinally(signal -> release(channel));
+        });
+    }
+    
+    /**
+     * Notifica que cambió el balance de las cuentas; solo abre ventana en las que tienen suscriptores
+     */
+    public void balancesChanged(Collection<UUID> accountIds) {
+        if (channels.isEmpty()) {
+            return;
+        }
+        for (UUID accountId : accountIds) {
+            AccountChannel channel = channels.get(accountId);
+            if (channel != null) {
+                channel.changed();
+            }
+        }
+    }
+    
+    private AccountChannel acquire(UUID accountId) {
+        return channels.compute(accountId, (id, channel) -> {
+            AccountChannel result = channel != null ? channel : new AccountChannel(id);
+            result.subscribers++;
+            return result;
+        });
+    }
+    
+    private void release(AccountChannel channel) {
+        channels.computeIfPresent(channel.accountId, (id, current) -> {
+            if (current != channel) {
+                return current;
+            }
+            return --current.subscribers == 0 ? null : current;
+        });
+    }
+    
+    private final class AccountChannel {
+        
+        private final UUID accountId;
+        private final Sinks.Many<AccountBalanceDTO> sink = Sinks.many().replay().latest();
+        private final AtomicBoolean pending = new AtomicBoolean();
+        /**
+         * Solo se modifica dentro de compute sobre channels
+         */
+        private int subscribers;
+        private long nextRead;
+        private long lastEmittedRead;
+        private BigDecimal lastBalance;
+        
+        private AccountChannel(UUID accountId) {
+            this.accountId = accountId;
+        }
+        
+        private void changed() {
+            if (pending.compareAndSet(false, true)) {
+                Mono.delay(window)
+                    .then(Mono.defer(() -> {
+                        // Los cambios durante la lectura abren una ventana nueva
+                        pending.set(false);
+                        return refresh();
+                    }))
+                    .subscribe(null, error -> log.warn("Error leyendo el balance de la cuenta {} para el stream: {}",
+                            accountId, error.getMessage()));
+            }
+        }
+        
+        /**
+         * Lee el balance y lo envía si cambió. Si dos lecturas terminan desordenadas se descarta la más antigua
+         */
+        private Mono<BigDecimal> refresh() {
+            long read;
+            synchronized (this) {
+                read = ++nextRead;
+            }
+            refreshes.increment();
+            return balanceLedger.getBalance(accountId)
+                .doOnNext(balance -> emit(read, balance));
+        }
+        
+        private synchronized void emit(long read, BigDecimal balance) {
+            if (read < lastEmittedRead || (lastBalance != null && lastBalance.compareTo(balance) == 0)) {
+                return;
+            }
+            lastEmittedRead = read;
+            lastBalance = balance;
+            pushed.increment();
+            sink.tryEmitNext(AccountBalanceDTO.builder()
+                .accountId(accountId)
+                .balance(balance)
+                .timestamp(LocalDateTime.now())
+                .build());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.curso.reactivebanking.stream;
+
+/**
+ * Qué hacer cuando el buffer de un suscriptor del stream de transacciones está lleno
+ * (banking.stream.overflow-policy)
+ */
+public enum StreamOverflowPolicy {
+    /**
+     * Descartar el evento más antiguo del buffer para hacer sitio al nuevo
+     */
+    DROP_OLDEST,
+    
+    /**
+     * Descartar el evento nuevo
+     */
+    DROP_LATEST,
+    
+    /**
+     * Desconectar al suscriptor; al reconectar vuelve a recibir eventos en vivo
+     */
+    DISCONNECT
+}
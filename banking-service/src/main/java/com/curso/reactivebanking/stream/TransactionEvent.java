@@ -0,0 +1,47 @@
+package com.curso.reactivebanking.stream;
+
+import java.util.function.Function;
+
+import com.curso.reactivebanking.dto.TransactionDTO;
+
+/**
+ * Transacción publicada en el stream con su ID de evento, creciente en orden de publicación.
+ * Guarda su frame SSE ya codificado para que todos los suscriptores compartan los mismos bytes.
+ */
+public final class TransactionEvent {
+    
+    private final long id;
+    private final TransactionDTO transaction;
+    private volatile byte[] frame;
+    
+    public TransactionEvent(long id, TransactionDTO transaction) {
+        this.id = id;
+        this.transaction = transaction;
+    }
+    
+    public long id() {
+        return id;
+    }
+    
+    public TransactionDTO transaction() {
+        return transaction;
+    }
+    
+    /**
+     * Frame SSE del evento, codificado la primera vez que se pide. Si dos suscriptores lo piden a la
+     * vez puede codificarse dos veces, pero ambos resultados son iguales y se conserva uno
+     */
+    byte[] frame(Function<TransactionEvent, byte[]> encoder) {
+        byte[] encoded = frame;
+        if (encoded == null) {
+            encoded = encoder.apply(this);
+            frame = encoded;
+        }
+        return encoded;
+    }
+    
+    @Override
+    public String toString() {
+        return "TransactionEvent[id=" + id + ", transaction=" + transaction + "]";
+    }
+}
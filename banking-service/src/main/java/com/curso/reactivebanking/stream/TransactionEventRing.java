@@ -0,0 +1,62 @@
+package com.curso.reactivebanking.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.curso.reactivebanking.dto.TransactionDTO;
+
+/**
+ * Últimos eventos del stream de transacciones en un anillo de tamaño fijo, para reenviar a un
+ * cliente que reconecta los eventos posteriores a su Last-Event-ID. Asigna los IDs de evento.
+ * Los métodos están sincronizados; el TransactionStreamHub también sincroniza sobre el anillo
+ * para registrar un suscriptor y tomar su reenvío sin perder ni duplicar eventos, y para repartir
+ * cada evento en orden de ID.
+ */
+public class TransactionEventRing {
+    
+    private final TransactionEvent[] slots;
+    private long nextId = 1;
+    
+    public TransactionEventRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacity);
+        }
+        this.slots = new TransactionEvent[capacity];
+    }
+    
+    /**
+     * Asigna el siguiente ID a la transacción y la guarda, reemplazando el evento más antiguo si está lleno
+     */
+    public synchronized TransactionEvent append(TransactionDTO transaction) {
+        TransactionEvent event = new TransactionEvent(nextId, transaction);
+        slots[(int) (nextId % slots.length)] = event;
+        nextId++;
+        return event;
+    }
+    
+    /**
+     * ID del último evento publicado, o 0 si no hay ninguno
+     */
+    public synchronized long lastId() {
+        return nextId - 1;
+    }
+    
+    /**
+     * ID del evento más antiguo que se conserva
+     */
+    public synchronized long oldestId() {
+        return Math.max(1, nextId - slots.length);
+    }
+    
+    /**
+     * Eventos conservados con ID posterior al indicado, del más antiguo al más reciente
+     */
+    public synchronized List<TransactionEvent> since(long afterId) {
+        long from = Math.max(afterId + 1, oldestId());
+        List<TransactionEvent> events = new ArrayList<>((int) Math.max(0, nextId - from));
+        for (long id = from; id < nextId; id++) {
+            events.add(slots[(int) (id % slots.length)]);
+        }
+        return events;
+    }
+}
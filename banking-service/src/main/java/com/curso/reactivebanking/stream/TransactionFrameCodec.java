@@ -0,0 +1,119 @@
+package com.curso.reactivebanking.stream;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.curso.reactivebanking.dto.TransactionDTO;
+import com.curso.reactivebanking.fraud.FraudReason;
+import com.curso.reactivebanking.model.TransactionStatus;
+
+/**
+ * Codificación binaria de tamaño fijo de un lote de eventos del stream, para el WebSocket.
+ * Todos los enteros son big-endian. Cabecera de 5 bytes: versión (1 byte) y número de eventos (int).
+ * Cada evento ocupa 77 bytes:
+ * <pre>
+ *  0  long   ID de evento
+ *  8  UUID   ID de la transacción (16 bytes, ceros si no tiene)
+ * 24  UUID   cuenta origen
+ * 40  UUID   cuenta destino
+ * 56  long   monto en céntimos
+ * 64  long   timestamp en milisegundos epoch, en la zona horaria del servicio
+ * 72  byte   ordinal de TransactionStatus
+ * 73  int    máscara de FraudReason
+ * </pre>
+ * Los textos (fraudAnalysis, description) no se envían: el análisis se deriva de la máscara.
+ */
+public final class TransactionFrameCodec {
+    
+    public static final byte VERSION = 1;
+    public static final int HEADER_SIZE = 5;
+    public static final int EVENT_SIZE = 77;
+    
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+    
+    private TransactionFrameCodec() {
+    }
+    
+    public static byte[] encode(List<TransactionEvent> events) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + events.size() * EVENT_SIZE);
+        buffer.put(VERSION);
+        buffer.putInt(events.size());
+        for (TransactionEvent event : events) {
+            TransactionDTO transaction = event.transaction();
+            buffer.putLong(event.id());
+            putUuid(buffer, transaction.getId());
+            putUuid(buffer, transaction.getFromAccountId());
+            putUuid(buffer, transaction.getToAccountId());
+            buffer.putLong(transaction.getAmount().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+            buffer.putLong(transaction.getTimestamp() == null
+                ? 0
+                : transaction.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            buffer.put(transaction.getStatus() == null ? -1 : (byte) transaction.getStatus().ordinal());
+            buffer.putInt(mask(transaction.getFraudReasons()));
+        }
+        return buffer.array();
+    }
+    
+    /**
+     * Inverso de encode, para clientes Java y pruebas; fraudAnalysis y description quedan nulos
+     */
+    public static List<TransactionEvent> decode(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versión de frame no soportada: " + version);
+        }
+        int count = buffer.getInt();
+        List<TransactionEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long eventId = buffer.getLong();
+            UUID id = getUuid(buffer);
+            UUID fromAccountId = getUuid(buffer);
+            UUID toAccountId = getUuid(buffer);
+            BigDecimal amount = BigDecimal.valueOf(buffer.getLong(), 2);
+            long epochMillis = buffer.getLong();
+            byte status = buffer.get();
+            int reasons = buffer.getInt();
+            
+            events.add(new TransactionEvent(eventId, TransactionDTO.builder()
+                .id(id)
+                .fromAccountId(fromAccountId)
+                .toAccountId(toAccountId)
+                .amount(amount)
+                .timestamp(epochMillis == 0
+                    ? null
+                    : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()))
+                .status(status < 0 ? null : STATUSES[status])
+                .fraudReasons(FraudReason.fromMask(reasons))
+                .build()));
+        }
+        return events;
+    }
+    
+    private static int mask(List<FraudReason> reasons) {
+        int mask = 0;
+        if (reasons != null) {
+            for (FraudReason reason : reasons) {
+                mask |= reason.bit();
+            }
+        }
+        return mask;
+    }
+    
+    private static void putUuid(ByteBuffer buffer, UUID value) {
+        buffer.putLong(value == null ? 0 : value.getMostSignificantBits());
+        buffer.putLong(value == null ? 0 : value.getLeastSignificantBits());
+    }
+    
+    private static UUID getUuid(ByteBuffer buffer) {
+        long most = buffer.getLong();
+        long least = buffer.getLong();
+        return most == 0 && least == 0 ? null : new UUID(most, least);
+    }
+}
@@ -0,0 +1,89 @@
+package com.curso.reactivebanking.stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.dto.TransactionDTO;
+import com.curso.reactivebanking.dto.TransactionStatsDTO;
+import com.curso.reactivebanking.dto.TransactionWindowStatsDTO;
+import com.curso.reactivebanking.model.TransactionStatus;
+
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Volumen de las transacciones publicadas en el último segundo, minuto y hora, mantenido de forma
+ * incremental al publicar cada transacción: ventanas de 10 cubetas de 100 ms, 60 de 1 s y 60 de
+ * 1 min. Un resumen cuesta lo mismo con cualquier volumen y no consulta la base de datos.
+ * El feed envía un resumen cada banking.stream.stats.interval, compartido por todos los clientes.
+ */
+@Component
+public class TransactionStatsAggregator {
+    
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+    
+    private final Clock clock = Clock.systemDefaultZone();
+    private final TumblingWindowAggregate lastSecond = new TumblingWindowAggregate(100, 10, STATUSES.length);
+    private final TumblingWindowAggregate lastMinute = new TumblingWindowAggregate(1_000, 60, STATUSES.length);
+    private final TumblingWindowAggregate lastHour = new TumblingWindowAggregate(60_000, 60, STATUSES.length);
+    private final Flux<TransactionStatsDTO> feed;
+    
+    public TransactionStatsAggregator(@Value("${banking.stream.stats.interval:1s}") Duration interval) {
+        this.feed = Flux.interval(Duration.ZERO, interval)
+            .onBackpressureDrop()
+            .map(tick -> snapshot())
+            .replay(1)
+            .refCount();
+    }
+    
+    /**
+     * Suma la transacción publicada a las tres ventanas
+     */
+    public void record(TransactionDTO transaction) {
+        long now = clock.millis();
+        long amountCents = transaction.getAmount().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        int status = transaction.getStatus().ordinal();
+        lastSecond.record(now, amountCents, status);
+        lastMinute.record(now, amountCents, status);
+        lastHour.record(now, amountCents, status);
+    }
+    
+    public TransactionStatsDTO snapshot() {
+        long now = clock.millis();
+        return TransactionStatsDTO.builder()
+            .timestamp(LocalDateTime.now(clock))
+            .lastSecond(toDTO(lastSecond, now))
+            .lastMinute(toDTO(lastMinute, now))
+            .lastHour(toDTO(lastHour, now))
+            .build();
+    }
+    
+    /**
+     * Resumen actual y después uno por intervalo; un cliente lento solo recibe el último
+     */
+    public Flux<TransactionStatsDTO> feed() {
+        return feed.onBackpressureLatest();
+    }
+    
+    private static TransactionWindowStatsDTO toDTO(TumblingWindowAggregate aggregate, long now) {
+        TumblingWindowAggregate.Totals totals = aggregate.snapshot(now);
+        Map<TransactionStatus, Long> byStatus = new EnumMap<>(TransactionStatus.class);
+        for (TransactionStatus status : STATUSES) {
+            byStatus.put(status, totals.byStatus()[status.ordinal()]);
+        }
+        return TransactionWindowStatsDTO.builder()
+            .windowMillis(aggregate.getWindowMillis())
+            .count(totals.count())
+            .totalAmount(BigDecimal.valueOf(totals.amountCents(), 2))
+            .perSecond(totals.count() * 1000.0 / aggregate.getWindowMillis())
+            .byStatus(byStatus)
+            .build();
+    }
+}
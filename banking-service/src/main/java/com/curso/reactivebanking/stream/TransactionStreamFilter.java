@@ -0,0 +1,43 @@
+package com.curso.reactivebanking.stream;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.UUID;
+
+import com.curso.reactivebanking.dto.TransactionDTO;
+import com.curso.reactivebanking.model.TransactionStatus;
+
+/**
+ * Filtro de un suscriptor del stream de transacciones; un conjunto vacío o un monto nulo no filtran.
+ * Las cuentas se resuelven con el índice del TransactionStreamHub; matches solo comprueba el resto
+ */
+public record TransactionStreamFilter(Set<UUID> accountIds, Set<TransactionStatus> statuses, BigDecimal minAmount) {
+    
+    public static final TransactionStreamFilter NONE = new TransactionStreamFilter(Set.of(), Set.of(), null);
+    
+    public TransactionStreamFilter {
+        accountIds = accountIds == null ? Set.of() : Set.copyOf(accountIds);
+        statuses = statuses == null ? Set.of() : Set.copyOf(statuses);
+    }
+    
+    public boolean hasAccounts() {
+        return !accountIds.isEmpty();
+    }
+    
+    /**
+     * Verdadero si la transacción es de alguna de las cuentas del filtro (el índice ya lo garantiza en vivo)
+     */
+    public boolean matchesAccounts(TransactionDTO transaction) {
+        return accountIds.isEmpty()
+            || accountIds.contains(transaction.getFromAccountId())
+            || accountIds.contains(transaction.getToAccountId());
+    }
+    
+    /**
+     * Verdadero si la transacción cumple el estado y el monto mínimo
+     */
+    public boolean matches(TransactionDTO transaction) {
+        return (statuses.isEmpty() || statuses.contains(transaction.getStatus()))
+            && (minAmount == null || transaction.getAmount().compareTo(minAmount) >= 0);
+    }
+}
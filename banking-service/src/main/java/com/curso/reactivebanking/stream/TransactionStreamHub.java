@@ -0,0 +1,315 @@
+package com.curso.reactivebanking.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.curso.reactivebanking.dto.TransactionDTO;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reparto de las transacciones publicadas a los suscriptores del stream en tiempo real.
+ * Cada suscriptor tiene su propio buffer de banking.stream.buffer-size eventos: un cliente lento
+ * solo llena el suyo y, cuando está lleno, se aplica banking.stream.overflow-policy sin frenar la
+ * publicación ni a los demás suscriptores.
+ * Los suscriptores filtrados por cuenta se indexan por ID de cuenta: cada transacción solo se
+ * ofrece a los suscriptores sin filtro de cuenta y a los de sus cuentas origen y destino.
+ * Cada evento lleva un ID creciente y los últimos banking.stream.replay-size se conservan en un
+ * anillo: un cliente que reconecta con Last-Event-ID recibe primero los que se perdió.
+ * El ID se asigna y el evento se reparte bajo el bloqueo del anillo, así cada suscriptor recibe
+ * los eventos en orden de ID aunque publiquen varios hilos a la vez.
+ * El frame SSE de cada evento se serializa una sola vez y se comparte entre todos los suscriptores.
+ */
+@Slf4j
+@Component
+public class TransactionStreamHub {
+    
+    private final int bufferSize;
+    private final StreamOverflowPolicy overflowPolicy;
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final Set<Subscriber> unfiltered = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Set<Subscriber>> byAccount = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final TransactionEventRing ring;
+    private final Counter dropped;
+    private final Counter disconnected;
+    private final Counter replayed;
+    private final Counter replayGaps;
+    private final Counter encoded;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    
+    public TransactionStreamHub(MeterRegistry meterRegistry,
+                                ObjectMapper objectMapper,
+                                @Value("${banking.stream.buffer-size:256}") int bufferSize,
+                                @Value("${banking.stream.overflow-policy:DROP_OLDEST}") StreamOverflowPolicy overflowPolicy,
+                                @Value("${banking.stream.replay-size:1024}") int replaySize) {
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+        this.ring = new TransactionEventRing(replaySize);
+        
+        Gauge.builder("banking.stream.subscribers", subscribers, Map::size)
+            .description("Suscriptores conectados al stream de transacciones")
+            .register(meterRegistry);
+        Gauge.builder("banking.stream.buffered", this, TransactionStreamHub::bufferedEvents)
+            .description("Eventos en los buffers de los suscriptores pendientes de enviar")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("banking.stream.dropped")
+            .description("Eventos descartados por buffer de suscriptor lleno")
+            .tag("policy", overflowPolicy.name())
+            .register(meterRegistry);
+        this.disconnected = Counter.builder("banking.stream.disconnected")
+            .description("Suscriptores desconectados por buffer lleno")
+            .register(meterRegistry);
+        this.replayed = Counter.builder("banking.stream.replayed")
+            .description("Eventos reenviados desde el anillo a clientes que reconectan")
+            .register(meterRegistry);
+        this.replayGaps = Counter.builder("banking.stream.replay.gaps")
+            .description("Reconexiones cuyo Last-Event-ID ya no está en el anillo")
+            .register(meterRegistry);
+        this.encoded = Counter.builder("banking.stream.encoded")
+            .description("Eventos serializados a JSON para el stream, una vez por evento y no por suscriptor")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Eventos que cumplen el filtro: si lastEventId no es nulo, primero los conservados posteriores
+     * a él y después los publicados a partir de la suscripción
+     */
+    public Flux<TransactionEvent> subscribe(TransactionStreamFilter filter, Long lastEventId) {
+        return Flux.defer(() -> {
+            Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), filter);
+            List<TransactionEvent> replay;
+            long replayedUpTo;
+            // Los eventos hasta replayedUpTo ya están en el anillo; los posteriores llegan al buffer del suscriptor
+            synchronized (ring) {
+                register(subscriber);
+                replayedUpTo = ring.lastId();
+                replay = lastEventId == null ? List.of() : ring.since(lastEventId);
+                if (lastEventId != null && lastEventId < ring.oldestId() - 1) {
+                    replayGaps.increment();
+                }
+            }
+            log.debug("Suscriptor {} conectado al stream de transacciones, filtro: {}, último evento: {}",
+                    subscriber.id, filter, lastEventId);
+            
+            Flux<TransactionEvent> live = subscriber.sink.asFlux()
+                .filter(event -> event.id() > replayedUpTo);
+            Flux<TransactionEvent> events = replay.isEmpty()
+                ? live
+                : Flux.fromIterable(replay)
+                    .filter(event -> filter.matchesAccounts(event.transaction()) && filter.matches(event.transaction()))
+                    .doOnNext(event -> replayed.increment())
+                    .concatWith(live);
+            // Si el cliente se va durante el reenvío nunca se suscribe a live y el sink no avisa al terminar
+            return events.doFinally(signal -> subscriber.disconnect());
+        });
+    }
+    
+    /**
+     * Como subscribe, pero con cada evento ya codificado como frame SSE (id y data JSON). Los bytes
+     * son compartidos entre suscriptores y no deben modificarse
+     */
+    public Flux<byte[]> subscribeFrames(TransactionStreamFilter filter, Long lastEventId) {
+        return subscribe(filter, lastEventId)
+            .map(event -> event.frame(this::encodeFrame));
+    }
+    
+    /**
+     * Asigna el ID de evento y entrega la transacción al buffer de cada suscriptor interesado.
+     * Entregar solo encola en buffers acotados, así que el bloqueo se mantiene poco tiempo
+     */
+    public void publish(TransactionDTO transaction) {
+        synchronized (ring) {
+            deliver(ring.append(transaction));
+        }
+    }
+    
+    private void deliver(TransactionEvent event) {
+        TransactionDTO transaction = event.transaction();
+        for (Subscriber subscriber : unfiltered) {
+            subscriber.offer(event);
+        }
+        if (byAccount.isEmpty()) {
+            return;
+        }
+        
+        UUID from = transaction.getFromAccountId();
+        Set<Subscriber> fromSubscribers = byAccount.get(from);
+        if (fromSubscribers != null) {
+            for (Subscriber subscriber : fromSubscribers) {
+                subscriber.offer(event);
+            }
+        }
+        Set<Subscriber> toSubscribers = byAccount.get(transaction.getToAccountId());
+        if (toSubscribers != null) {
+            for (Subscriber subscriber : toSubscribers) {
+                // Los suscritos a ambas cuentas ya la recibieron por la cuenta origen
+                if (!subscriber.filter.accountIds().contains(from)) {
+                    subscriber.offer(event);
+                }
+            }
+        }
+    }
+    
+    private void register(Subscriber subscriber) {
+        subscribers.put(subscriber.id, subscriber);
+        if (!subscriber.filter.hasAccounts()) {
+            unfiltered.add(subscriber);
+            return;
+        }
+        for (UUID accountId : subscriber.filter.accountIds()) {
+            byAccount.compute(accountId, (id, accountSubscribers) -> {
+                Set<Subscriber> result = accountSubscribers != null ? accountSubscribers : ConcurrentHashMap.newKeySet();
+                result.add(subscriber);
+                return result;
+            });
+        }
+    }
+    
+    /**
+     * Retira al suscriptor del reparto; verdadero si seguía registrado
+     */
+    private boolean unregister(Subscriber subscriber) {
+        if (subscribers.remove(subscriber.id) == null) {
+            return false;
+        }
+        unfiltered.remove(subscriber);
+        for (UUID accountId : subscriber.filter.accountIds()) {
+            byAccount.computeIfPresent(accountId, (id, accountSubscribers) -> {
+                accountSubscribers.remove(subscriber);
+                return accountSubscribers.isEmpty() ? null : accountSubscribers;
+            });
+        }
+        return true;
+    }
+    
+    private byte[] encodeFrame(TransactionEvent event) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(event.transaction());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento " + event.id() + " del stream", e);
+        }
+        encoded.increment();
+        
+        byte[] prefix = ("id:" + event.id() + "\ndata:").getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[prefix.length + json.length + 2];
+        System.arraycopy(prefix, 0, frame, 0, prefix.length);
+        System.arraycopy(json, 0, frame, prefix.length, json.length);
+        frame[frame.length - 2] = '\n';
+        frame[frame.length - 1] = '\n';
+        return frame;
+    }
+    
+    private long bufferedEvents() {
+        long total = 0;
+        for (Subscriber subscriber : subscribers.values()) {
+            total += subscriber.buffer.size();
+        }
+        return total;
+    }
+    
+    private void countEmitFailure(Sinks.EmitResult result) {
+        Counter.builder("banking.stream.emit.failures")
+            .description("Eventos que no se pudieron entregar a un suscriptor")
+            .tag("result", result.name())
+            .register(meterRegistry)
+            .increment();
+    }
+    
+    private final class Subscriber {
+        
+        private final long id;
+        private final TransactionStreamFilter filter;
+        private final EventBuffer buffer = new EventBuffer(bufferSize, overflowPolicy == StreamOverflowPolicy.DROP_OLDEST);
+        private final Sinks.Many<TransactionEvent> sink;
+        
+        private Subscriber(long id, TransactionStreamFilter filter) {
+            this.id = id;
+            this.filter = filter;
+            this.sink = Sinks.many().unicast().onBackpressureBuffer(buffer, this::disconnect);
+        }
+        
+        private void disconnect() {
+            if (unregister(this)) {
+                buffer.clear();
+                log.debug("Suscriptor {} desconectado del stream de transacciones", id);
+            }
+        }
+        
+        private void offer(TransactionEvent event) {
+            if (!filter.matches(event.transaction())) {
+                return;
+            }
+            
+            Sinks.EmitResult result;
+            while ((result = sink.tryEmitNext(event)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+            }
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                overflow();
+            } else if (result.isFailure() && result != Sinks.EmitResult.FAIL_CANCELLED) {
+                countEmitFailure(result);
+            }
+        }
+        
+        private void overflow() {
+            dropped.increment();
+            if (overflowPolicy == StreamOverflowPolicy.DISCONNECT && unregister(this)) {
+                disconnected.increment();
+                log.warn("Suscriptor {} desconectado del stream: buffer de {} eventos lleno", id, bufferSize);
+                buffer.clear();
+                sink.tryEmitComplete();
+            }
+        }
+    }
+    
+    /**
+     * Buffer acotado de un suscriptor. Con dropOldest, al estar lleno retira el evento más
+     * antiguo en lugar de rechazar el nuevo
+     */
+    private final class EventBuffer extends ArrayBlockingQueue<TransactionEvent> {
+        
+        private final boolean dropOldest;
+        
+        private EventBuffer(int capacity, boolean dropOldest) {
+            super(capacity);
+            this.dropOldest = dropOldest;
+        }
+        
+        @Override
+        public boolean offer(TransactionEvent event) {
+            if (super.offer(event)) {
+                return true;
+            }
+            if (!dropOldest) {
+                return false;
+            }
+            while (!super.offer(event)) {
+                if (poll() != null) {
+                    dropped.increment();
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.curso.reactivebanking.stream;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Ruta del WebSocket binario de transacciones, por delante de los controladores
+ */
+@Configuration
+public class TransactionStreamWebSocketConfig {
+    
+    public static final String PATH = "/api/transactions/stream/ws";
+    
+    @Bean
+    public HandlerMapping transactionStreamWebSocketMapping(TransactionStreamWebSocketHandler handler) {
+        return new SimpleUrlHandlerMapping(Map.of(PATH, handler), -1);
+    }
+}
@@ -0,0 +1,105 @@
+package com.curso.reactivebanking.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.curso.reactivebanking.model.TransactionStatus;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stream de transacciones por WebSocket para consumidores de alto volumen: los eventos se agrupan
+ * hasta banking.stream.ws.max-batch o banking.stream.ws.flush-interval y cada lote viaja en un solo
+ * mensaje binario con el formato de TransactionFrameCodec. Admite los mismos filtros que el stream
+ * SSE como parámetros de la URL (accountId, status, minAmount) y lastEventId para reanudar.
+ */
+@Slf4j
+@Component
+public class TransactionStreamWebSocketHandler implements WebSocketHandler {
+    
+    private final TransactionStreamHub transactionStreamHub;
+    private final int maxBatch;
+    private final Duration flushInterval;
+    private final Counter messages;
+    private final Counter events;
+    
+    public TransactionStreamWebSocketHandler(TransactionStreamHub transactionStreamHub,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${banking.stream.ws.max-batch:512}") int maxBatch,
+                                             @Value("${banking.stream.ws.flush-interval:50ms}") Duration flushInterval) {
+        this.transactionStreamHub = transactionStreamHub;
+        this.maxBatch = maxBatch;
+        this.flushInterval = flushInterval;
+        this.messages = Counter.builder("banking.stream.ws.messages")
+            .description("Mensajes binarios enviados por el WebSocket de transacciones")
+            .register(meterRegistry);
+        this.events = Counter.builder("banking.stream.ws.events")
+            .description("Eventos enviados por el WebSocket de transacciones")
+            .register(meterRegistry);
+    }
+    
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(session.getHandshakeInfo().getUri())
+            .build()
+            .getQueryParams();
+        TransactionStreamFilter filter;
+        Long lastEventId;
+        try {
+            filter = new TransactionStreamFilter(
+                parseAll(params.get("accountId"), UUID::fromString),
+                parseAll(params.get("status"), TransactionStatus::valueOf),
+                params.containsKey("minAmount") ? new BigDecimal(params.getFirst("minAmount")) : null);
+            lastEventId = params.containsKey("lastEventId") ? Long.valueOf(params.getFirst("lastEventId")) : null;
+        } catch (IllegalArgumentException e) {
+            log.debug("WebSocket de transacciones rechazado, parámetros inválidos: {}", params);
+            return session.close(CloseStatus.BAD_DATA.withReason("Parámetros inválidos: " + e.getMessage()));
+        }
+        log.info("Cliente conectado al WebSocket de transacciones {}, filtro: {}, último evento: {}",
+                session.getId(), filter, lastEventId);
+        
+        Flux<WebSocketMessage> batches = transactionStreamHub.subscribe(filter, lastEventId)
+            .bufferTimeout(maxBatch, flushInterval, true)
+            .map(batch -> {
+                byte[] frame = TransactionFrameCodec.encode(batch);
+                messages.increment();
+                events.increment(batch.size());
+                return session.binaryMessage(factory -> factory.wrap(frame));
+            });
+        
+        // El cierre del cliente completa receive y cancela el envío, que retira al suscriptor del hub
+        return Mono.firstWithSignal(session.send(batches), session.receive().then())
+            .doFinally(signal -> log.debug("Cliente desconectado del WebSocket de transacciones {}", session.getId()));
+    }
+    
+    private static <T> Set<T> parseAll(List<String> values, Function<String, T> parser) {
+        if (values == null) {
+            return Set.of();
+        }
+        return values.stream()
+            .flatMap(value -> Arrays.stream(value.split(",")))
+            .map(String::trim)
+            .filter(value -> !value.isEmpty())
+            .map(parser)
+            .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,94 @@
+package com.curso.reactivebanking.stream;
+
+import java.util.Arrays;
+
+/**
+ * Conteo, monto total y desglose por estado de las transacciones de una ventana deslizante,
+ * mantenidos de forma incremental en cubetas consecutivas de duración fija sobre arrays primitivos.
+ * Cada cubeta se reutiliza, vaciándola, cuando empieza su siguiente periodo; el resumen suma las
+ * cubetas dentro de la ventana. Los montos se acumulan en céntimos.
+ * Los métodos están sincronizados; el coste de cada uno no depende del volumen de transacciones.
+ */
+public class TumblingWindowAggregate {
+    
+    private final long bucketMillis;
+    private final int statusCount;
+    private final long[] bucketIds;
+    private final long[] counts;
+    private final long[] amounts;
+    /**
+     * Conteos por estado de todas las cubetas: statusCount posiciones por cubeta
+     */
+    private final long[] statusCounts;
+    
+    /**
+     * @param bucketMillis duración de cada cubeta
+     * @param buckets      cubetas de la ventana, que dura bucketMillis * buckets
+     * @param statusCount  estados distintos, indexados desde 0
+     */
+    public TumblingWindowAggregate(long bucketMillis, int buckets, int statusCount) {
+        if (bucketMillis < 1 || buckets < 1) {
+            throw new IllegalArgumentException("La duración y el número de cubetas deben ser positivos");
+        }
+        this.bucketMillis = bucketMillis;
+        this.statusCount = statusCount;
+        this.bucketIds = new long[buckets];
+        this.counts = new long[buckets];
+        this.amounts = new long[buckets];
+        this.statusCounts = new long[buckets * statusCount];
+        Arrays.fill(bucketIds, Long.MIN_VALUE);
+    }
+    
+    public long getWindowMillis() {
+        return bucketMillis * bucketIds.length;
+    }
+    
+    /**
+     * Suma la transacción a la cubeta del instante indicado. Las de cubetas que ya salieron de la ventana se ignoran
+     */
+    public synchronized void record(long epochMillis, long amountCents, int status) {
+        long bucketId = Math.floorDiv(epochMillis, bucketMillis);
+        int index = (int) Math.floorMod(bucketId, (long) bucketIds.length);
+        if (bucketIds[index] > bucketId) {
+            return;
+        }
+        if (bucketIds[index] < bucketId) {
+            bucketIds[index] = bucketId;
+            counts[index] = 0;
+            amounts[index] = 0;
+            Arrays.fill(statusCounts, index * statusCount, (index + 1) * statusCount, 0);
+        }
+        
+        counts[index]++;
+        amounts[index] += amountCents;
+        statusCounts[index * statusCount + status]++;
+    }
+    
+    /**
+     * Totales de la ventana que termina en el instante indicado, incluida la cubeta en curso
+     */
+    public synchronized Totals snapshot(long epochMillis) {
+        long current = Math.floorDiv(epochMillis, bucketMillis);
+        long oldest = current - bucketIds.length;
+        long count = 0;
+        long amount = 0;
+        long[] byStatus = new long[statusCount];
+        for (int index = 0; index < bucketIds.length; index++) {
+            if (bucketIds[index] <= oldest || bucketIds[index] > current) {
+                continue;
+            }
+            count += counts[index];
+            amount += amounts[index];
+            for (int status = 0; status < statusCount; status++) {
+                byStatus[status] += statusCounts[index * statusCount + status];
+            }
+        }
+        return new Totals(count, amount, byStatus);
+    }
+    
+    /**
+     * Totales de una ventana; byStatus está indexado por estado
+     */
+    public record Totals(long count, long amountCents, long[] byStatus) {
+    }
+}
@@ -1,4 +1,7 @@
 -- Eliminar tablas si existen
+DROP TABLE IF EXISTS balance_snapshots;
+DROP TABLE IF EXISTS ledger_entries;
+DROP TABLE IF EXISTS account_balance_stripes;
 DROP TABLE IF EXISTS transactions;
 DROP TABLE IF EXISTS accounts;
 
@@ -20,12 +23,49 @@ CREATE TABLE transactions (
     amount DECIMAL(15,2) NOT NULL,
     timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
-    fraud_analysis VARCHAR(500),
+    fraud_reasons INT NOT NULL DEFAULT 0,   -- Máscara de bits de FraudReason
+    fraud_velocity INT,                     -- Transacciones en el último minuto si se marcó HIGH_FREQUENCY
+    fraud_amount_z_score DECIMAL(8,2),      -- Z-score del monto respecto al perfil si se marcó AMOUNT_OUTLIER
+    fraud_fan_out INT,                      -- Cuentas destino distintas en la ventana si se marcó HIGH_FAN_OUT
+    fraud_analysis VARCHAR(500),            -- Solo texto libre de errores de ejecución
     description VARCHAR(255),
     FOREIGN KEY (from_account_id) REFERENCES accounts(id),
     FOREIGN KEY (to_account_id) REFERENCES accounts(id),
     CHECK (amount > 0),
-    CHECK (status IN ('PENDING', 'APPROVED', 'REJECTED'))
+    CHECK (status IN ('PENDING', 'APPROVED', 'REJECTED', 'REVIEW'))
+);
+
+-- Crear tabla de sub-balances de cuentas muy concurridas (banking.ledger.striping.accounts)
+-- El balance de la cuenta es accounts.balance más la suma de sus franjas
+CREATE TABLE account_balance_stripes (
+    account_id UUID NOT NULL,
+    stripe INT NOT NULL,
+    balance DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (account_id, stripe),
+    FOREIGN KEY (account_id) REFERENCES accounts(id),
+    CHECK (balance >= 0)
+);
+
+-- Crear tabla de asientos del libro mayor (solo inserciones, banking.ledger.mode=journal)
+CREATE TABLE ledger_entries (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    account_id UUID NOT NULL,
+    transaction_id UUID, -- sin FK: en persistence-mode SINGLE_WRITE los asientos se escriben antes que la transacción
+    entry_type VARCHAR(20) NOT NULL,
+    amount DECIMAL(15,2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (account_id) REFERENCES accounts(id),
+    CHECK (entry_type IN ('DEBIT', 'CREDIT', 'ADJUSTMENT'))
+);
+
+-- Crear tabla de instantáneas de balance: balance de la cuenta hasta el asiento last_entry_id incluido
+CREATE TABLE balance_snapshots (
+    account_id UUID NOT NULL,
+    last_entry_id BIGINT NOT NULL,
+    balance DECIMAL(15,2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (account_id, last_entry_id),
+    FOREIGN KEY (account_id) REFERENCES accounts(id)
 );
 
 -- Crear índices para mejorar rendimiento
@@ -33,4 +73,6 @@ CREATE INDEX idx_account_number ON accounts(account_number);
 CREATE INDEX idx_transactions_from_account ON transactions(from_account_id);
 CREATE INDEX idx_transactions_to_account ON transactions(to_account_id);
 CREATE INDEX idx_transactions_timestamp ON transactions(timestamp);
-CREATE INDEX idx_transactions_status ON transactions(status); 
\ No newline at end of file
+CREATE INDEX idx_transactions_status ON transactions(status, timestamp, id);
+CREATE INDEX idx_transactions_fraud_reasons ON transactions(fraud_reasons, timestamp, id);
+CREATE INDEX idx_ledger_entries_account ON ledger_entries(account_id, id);
@@ -0,0 +1,172 @@
+package com.curso.reactivebanking.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.curso.reactivebanking.dto.TransferRequestDTO;
+import com.curso.reactivebanking.ledger.BalanceLedger;
+import com.curso.reactivebanking.ledger.TransferExecutionMode;
+import com.curso.reactivebanking.service.TransactionPersistenceMode;
+import com.curso.reactivebanking.service.TransactionService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmarks de latencia del flujo de transferencias.
+ * Se ejecutan solo con el perfil benchmark: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "banking.fraud.max-transactions-per-minute=1000000",
+    "banking.fraud.suspicious-hours.start=24",
+    "banking.fraud.suspicious-hours.end=-1",
+    "logging.level.com.curso.reactivebanking=WARN",
+    "logging.level.org.springframework.r2dbc=WARN",
+    "logging.level.io.r2dbc.h2=WARN"
+})
+class TransferBenchmarkTest {
+    
+    private static final int WARMUP_ITERATIONS = 500;
+    private static final int MEASURED_ITERATIONS = 5000;
+    private static final int CONCURRENCY = 8;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+    
+    private static final List<UUID> ACCOUNTS = List.of(
+        UUID.fromString("550e8400-e29b-41d4-a716-446655440000"),
+        UUID.fromString("550e8400-e29b-41d4-a716-446655440001"),
+        UUID.fromString("550e8400-e29b-41d4-a716-446655440002"),
+        UUID.fromString("550e8400-e29b-41d4-a716-446655440003"),
+        UUID.fromString("550e8400-e29b-41d4-a716-446655440004"));
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private BalanceLedger balanceLedger;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Test
+    void executionModes_latencyPercentiles() {
+        BalanceLedger target = AopTestUtils.getTargetObject(balanceLedger);
+        
+        for (TransferExecutionMode mode : TransferExecutionMode.values()) {
+            ReflectionTestUtils.setField(target, "executionMode", mode);
+            runTransfers(WARMUP_ITERATIONS);
+        }
+        
+        for (TransferExecutionMode mode : TransferExecutionMode.values()) {
+            ReflectionTestUtils.setField(target, "executionMode", mode);
+            report("execution-mode=" + mode, runTransfers(MEASURED_ITERATIONS));
+        }
+    }
+    
+    @Test
+    void persistenceModes_writesAndLatencyPercentiles() {
+        TransactionService target = AopTestUtils.getTargetObject(transactionService);
+        BalanceLedger ledger = AopTestUtils.getTargetObject(balanceLedger);
+        ReflectionTestUtils.setField(ledger, "executionMode", TransferExecutionMode.STANDARD);
+        
+        for (TransactionPersistenceMode mode : TransactionPersistenceMode.values()) {
+            ReflectionTestUtils.setField(target, "persistenceMode", mode);
+            runTransfers(WARMUP_ITERATIONS);
+        }
+        
+        for (TransactionPersistenceMode mode : TransactionPersistenceMode.values()) {
+            ReflectionTestUtils.setField(target, "persistenceMode", mode);
+            double writesBefore = transactionWrites();
+            Result result = runTransfers(MEASURED_ITERATIONS);
+            double writesPerTransfer = (transactionWrites() - writesBefore) / MEASURED_ITERATIONS;
+            report("persistence-mode=" + mode + String.format(" (%.2f writes/transfer)", writesPerTransfer), result);
+        }
+        ReflectionTestUtils.setField(target, "persistenceMode", TransactionPersistenceMode.TWO_PHASE);
+    }
+    
+    @Test
+    void transferLanes_latencyPercentiles() {
+        TransactionService target = AopTestUtils.getTargetObject(transactionService);
+        BalanceLedger ledger = AopTestUtils.getTargetObject(balanceLedger);
+        ReflectionTestUtils.setField(ledger, "executionMode", TransferExecutionMode.STANDARD);
+        
+        for (boolean lanesEnabled : new boolean[] {false, true}) {
+            ReflectionTestUtils.setField(target, "lanesEnabled", lanesEnabled);
+            runTransfers(WARMUP_ITERATIONS);
+            report("lanes-enabled=" + lanesEnabled, runTransfers(MEASURED_ITERATIONS));
+        }
+        ReflectionTestUtils.setField(target, "lanesEnabled", false);
+    }
+    
+    private double transactionWrites() {
+        return meterRegistry.counter("banking.transaction.writes").count();
+    }
+    
+    /**
+     * Ejecuta transferencias con concurrencia fija y devuelve la latencia de cada una en nanosegundos
+     */
+    private Result runTransfers(int iterations) {
+        long[] latencies = new long[iterations];
+        AtomicInteger errors = new AtomicInteger();
+        
+        Flux.range(0, iterations)
+            .flatMap(i -> Mono.defer(() -> {
+                long start = System.nanoTime();
+                return transactionService.transfer(request(i))
+                    .doOnSuccess(dto -> latencies[i] = System.nanoTime() - start)
+                    .then()
+                    .onErrorResume(error -> {
+                        errors.incrementAndGet();
+                        latencies[i] = System.nanoTime() - start;
+                        return Mono.empty();
+                    });
+            }), CONCURRENCY)
+            .blockLast();
+        
+        return new Result(latencies, errors.get());
+    }
+    
+    /**
+     * Rota origen y destino entre las cuentas de prueba para mezclar direcciones (A->B y B->A)
+     */
+    private TransferRequestDTO request(int i) {
+        int from = i % ACCOUNTS.size();
+        int to = (from + 1 + (i / ACCOUNTS.size()) % (ACCOUNTS.size() - 1)) % ACCOUNTS.size();
+        return TransferRequestDTO.builder()
+            .fromAccountId(ACCOUNTS.get(from))
+            .toAccountId(ACCOUNTS.get(to))
+            .amount(AMOUNT)
+            .description("benchmark")
+            .build();
+    }
+    
+    private void report(String scenario, Result result) {
+        long[] sorted = result.latencies().clone();
+        Arrays.sort(sorted);
+        System.out.printf("[benchmark] %-55s n=%d errors=%d p50=%.3f ms p99=%.3f ms max=%.3f ms%n",
+            scenario, sorted.length, result.errors(),
+            percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6);
+        assertEquals(MEASURED_ITERATIONS, sorted.length);
+    }
+    
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+    
+    private record Result(long[] latencies, int errors) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.curso.reactivebanking.fraud;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.model.TransactionStatus;
+import com.curso.reactivebanking.repository.TransactionRepository;
+
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccountProfileStoreTest {
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Test
+    void afterSingletonsInstantiated_SeedsOnlyTheRecentWindow() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        AccountProfileStore store = new AccountProfileStore(transactionRepository, new SimpleMeterRegistry(),
+            true, 100, 1, Duration.ofDays(7));
+        when(transactionRepository.findByStatusAndTimestampGreaterThanEqual(eq(TransactionStatus.APPROVED), any()))
+            .thenReturn(Flux.just(approved(accountId)));
+        
+        // When
+        LocalDateTime before = LocalDateTime.now();
+        store.afterSingletonsInstantiated();
+        
+        // Then: la consulta pide solo la última semana y el perfil queda sembrado
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(transactionRepository).findByStatusAndTimestampGreaterThanEqual(eq(TransactionStatus.APPROVED), since.capture());
+        assertTrue(!since.getValue().isBefore(before.minusDays(7)) && since.getValue().isBefore(before.minusDays(6)));
+        assertNotNull(store.establishedProfile(accountId));
+    }
+    
+    private static Transaction approved(UUID fromAccountId) {
+        return Transaction.builder()
+            .id(UUID.randomUUID())
+            .fromAccountId(fromAccountId)
+            .toAccountId(UUID.randomUUID())
+            .amount(BigDecimal.TEN)
+            .status(TransactionStatus.APPROVED)
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.curso.reactivebanking.fraud;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountProfileTest {
+    
+    private static final UUID PAYEE = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+    
+    private AccountProfile profile;
+    
+    @BeforeEach
+    void setUp() {
+        profile = new AccountProfile();
+    }
+    
+    @Test
+    void record_TracksMeanAndSampleVariance() {
+        // Given
+        double[] amounts = {2, 4, 4, 4, 5, 5, 7, 9};
+        
+        // When
+        for (double amount : amounts) {
+            profile.record(amount, 10, PAYEE);
+        }
+        
+        // Then
+        assertEquals(8, profile.count());
+        assertEquals(5.0, profile.mean(), 1e-9);
+        assertEquals(Math.sqrt(32.0 / 7), profile.standardDeviation(), 1e-9);
+    }
+    
+    @Test
+    void zScore_UsesRelativeDeviationFloorForIdenticalAmounts() {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            profile.record(1000, 10, PAYEE);
+        }
+        
+        // Then: desviación mínima del 10% de la media
+        assertEquals(0.0, profile.zScore(1000), 1e-9);
+        assertEquals(0.5, profile.zScore(1050), 1e-9);
+        assertEquals(5.0, profile.zScore(1500), 1e-9);
+    }
+    
+    @Test
+    void hourShare_ReflectsHistogram() {
+        // Given
+        profile.record(10, 9, PAYEE);
+        profile.record(10, 9, PAYEE);
+        profile.record(10, 9, PAYEE);
+        profile.record(10, 23, PAYEE);
+        
+        // Then
+        assertEquals(0.75, profile.hourShare(9), 1e-9);
+        assertEquals(0.25, profile.hourShare(23), 1e-9);
+        assertEquals(0.0, profile.hourShare(3), 1e-9);
+    }
+    
+    @Test
+    void isTypicalCounterparty_KeepsFrequentPayeesWhenSlotsOverflow() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            profile.record(10, 10, PAYEE);
+        }
+        
+        // When: más contrapartes únicas que huecos
+        UUID last = null;
+        for (int i = 0; i < AccountProfile.COUNTERPARTY_SLOTS * 4; i++) {
+            last = UUID.randomUUID();
+            profile.record(10, 10, last);
+        }
+        
+        // Then: la última ocupa un hueco con contador heredado pero no es habitual
+        assertTrue(profile.isTypicalCounterparty(PAYEE));
+        assertFalse(profile.isTypicalCounterparty(last));
+        assertFalse(profile.isTypicalCounterparty(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.curso.reactivebanking.fraud;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.model.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AmountOutlierRuleTest {
+    
+    private static final UUID ACCOUNT = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+    private static final UUID PAYEE = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+    
+    @Mock
+    private AccountProfileStore profileStore;
+    
+    private AmountOutlierRule rule;
+    
+    @BeforeEach
+    void setUp() {
+        rule = new AmountOutlierRule(profileStore);
+        ReflectionTestUtils.setField(rule, "zThreshold", 4.0);
+        ReflectionTestUtils.setField(rule, "unfamiliarZThreshold", 3.0);
+    }
+    
+    @Test
+    void check_TinyMeanProfile_ClampsZScoreToColumnRange() {
+        // Given: una cuenta que solo ha movido 0.01
+        AccountProfile profile = new AccountProfile();
+        for (int i = 0; i < 20; i++) {
+            profile.record(0.01, 10, PAYEE);
+        }
+        when(profileStore.establishedProfile(ACCOUNT)).thenReturn(profile);
+        Transaction transaction = transaction(BigDecimal.valueOf(10000));
+        
+        // When: z ≈ 10^7, fuera de DECIMAL(8,2)
+        Optional<FraudFinding> finding = rule.check(transaction);
+        
+        // Then
+        assertTrue(finding.isPresent());
+        finding.get().reason().apply(transaction, finding.get().detail());
+        assertEquals(new BigDecimal("999999.99"), transaction.getFraudAmountZScore());
+    }
+    
+    private static Transaction transaction(BigDecimal amount) {
+        return Transaction.builder()
+            .id(UUID.randomUUID())
+            .fromAccountId(ACCOUNT)
+            .toAccountId(PAYEE)
+            .amount(amount)
+            .timestamp(LocalDateTime.now().withHour(10))
+            .status(TransactionStatus.PENDING)
+            .build();
+    }
+}
@@ -0,0 +1,203 @@
+package com.curso.reactivebanking.fraud;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.service.PipelineMetrics;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FraudRuleEngineTest {
+    
+    private final List<String> invoked = new CopyOnWriteArrayList<>();
+    
+    @Test
+    void evaluate_SynchronousRulesFirstInCostOrder() {
+        // Given: reglas registradas desordenadas y sin cortocircuito
+        FraudRuleEngine engine = engine(false,
+            asynchronous("async-barata", 1, FraudVerdict.REVIEW, Mono.fromSupplier(() -> review("async-barata"))),
+            synchronous("sync-cara", 30, FraudVerdict.REVIEW, review("sync-cara")),
+            synchronous("sync-barata", 10, FraudVerdict.REVIEW, review("sync-barata")));
+        
+        // Then: primero las síncronas por coste y después las asíncronas, con los indicadores en ese orden
+        StepVerifier.create(engine.evaluate(transaction()))
+            .assertNext(findings -> assertEquals(List.of("sync-barata", "sync-cara", "async-barata"),
+                findings.stream().map(FraudFinding::rule).toList()))
+            .verifyComplete();
+        assertEquals(List.of("sync-barata", "sync-cara", "async-barata"), invoked);
+    }
+    
+    @Test
+    void evaluate_ShortCircuitsOnFinalVerdict() {
+        // Given: la regla más barata rechaza y ninguna otra puede producir algo más severo
+        FraudRuleEngine engine = engine(true,
+            synchronous("rechazo", 1, FraudVerdict.REJECT, reject("rechazo")),
+            synchronous("revision", 5, FraudVerdict.REVIEW, review("revision")),
+            asynchronous("remota", 10, FraudVerdict.REJECT, Mono.fromSupplier(() -> reject("remota"))));
+        
+        // Then: solo se evalúa la primera regla
+        StepVerifier.create(engine.evaluate(transaction()))
+            .assertNext(findings -> assertEquals(List.of("rechazo"),
+                findings.stream().map(FraudFinding::rule).toList()))
+            .verifyComplete();
+        assertEquals(List.of("rechazo"), invoked);
+    }
+    
+    @Test
+    void evaluate_ContinuesWhileAPendingRuleCanWorsenTheVerdict() {
+        // Given: la regla síncrona solo pide revisión y la asíncrona puede rechazar
+        FraudRuleEngine engine = engine(true,
+            synchronous("revision", 1, FraudVerdict.REVIEW, review("revision")),
+            synchronous("otra-revision", 5, FraudVerdict.REVIEW, review("otra-revision")),
+            asynchronous("remota", 10, FraudVerdict.REJECT, Mono.fromSupplier(() -> reject("remota"))));
+        
+        // Then: una revisión no es definitiva mientras quede una regla que pueda rechazar
+        StepVerifier.create(engine.evaluate(transaction()))
+            .assertNext(findings -> assertEquals(List.of(FraudVerdict.REVIEW, FraudVerdict.REVIEW, FraudVerdict.REJECT),
+                findings.stream().map(FraudFinding::verdict).toList()))
+            .verifyComplete();
+        assertEquals(List.of("revision", "otra-revision", "remota"), invoked);
+    }
+    
+    @Test
+    void evaluate_CancelsPendingAsynchronousRulesOnFinalVerdict() {
+        // Given: dos reglas asíncronas en paralelo; la lenta arranca primero y la rápida rechaza
+        AtomicBoolean slowCancelled = new AtomicBoolean();
+        AtomicBoolean slowCompleted = new AtomicBoolean();
+        Mono<FraudFinding> slow = Mono.delay(Duration.ofMillis(200))
+            .map(tick -> review("lenta"))
+            .doOnNext(finding -> slowCompleted.set(true))
+            .doOnCancel(() -> slowCancelled.set(true));
+        FraudRuleEngine engine = engine(true,
+            asynchronous("lenta", 1, FraudVerdict.REVIEW, slow),
+            asynchronous("rapida", 2, FraudVerdict.REJECT, Mono.fromSupplier(() -> reject("rapida"))));
+        
+        // Then: el veredicto definitivo llega sin esperar a la lenta, que se cancela
+        StepVerifier.create(engine.evaluate(transaction()))
+            .assertNext(findings -> assertEquals(List.of("rapida"),
+                findings.stream().map(FraudFinding::rule).toList()))
+            .expectComplete()
+            .verify(Duration.ofMillis(150));
+        assertTrue(slowCancelled.get());
+        
+        StepVerifier.create(Mono.delay(Duration.ofMillis(300)))
+            .expectNextCount(1)
+            .verifyComplete();
+        assertFalse(slowCompleted.get());
+    }
+    
+    @Test
+    void evaluate_DoesNotInvokeLaterAsynchronousRulesAfterFinalVerdict() {
+        // Given: la regla asíncrona más barata rechaza al suscribirse
+        FraudRuleEngine engine = engine(true,
+            asynchronous("rapida", 1, FraudVerdict.REJECT, Mono.fromSupplier(() -> reject("rapida"))),
+            asynchronous("posterior", 2, FraudVerdict.REVIEW, Mono.fromSupplier(() -> review("posterior"))));
+        
+        // Then: takeUntil cancela el origen antes de suscribir la siguiente regla
+        StepVerifier.create(engine.evaluate(transaction()))
+            .assertNext(findings -> assertEquals(List.of("rapida"),
+                findings.stream().map(FraudFinding::rule).toList()))
+            .verifyComplete();
+        assertEquals(List.of("rapida"), invoked);
+    }
+    
+    private FraudRuleEngine engine(boolean shortCircuit, FraudRule... rules) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new FraudRuleEngine(List.of(rules), new PipelineMetrics(meterRegistry), meterRegistry,
+            shortCircuit, Duration.ofSeconds(1), FraudDegradePolicy.PENDING, 5, Duration.ofSeconds(10));
+    }
+    
+    private FraudRule synchronous(String name, int cost, FraudVerdict maxVerdict, FraudFinding finding) {
+        return new StubRule(name, cost, true, maxVerdict, Mono.just(finding));
+    }
+    
+    private FraudRule asynchronous(String name, int cost, FraudVerdict maxVerdict, Mono<FraudFinding> result) {
+        return new StubRule(name, cost, false, maxVerdict, result);
+    }
+    
+    private static FraudFinding review(String rule) {
+        return FraudFinding.review(rule, FraudReason.HIGH_AMOUNT, 0);
+    }
+    
+    private static FraudFinding reject(String rule) {
+        return new FraudFinding(rule, FraudVerdict.REJECT, FraudReason.HIGH_AMOUNT, 0);
+    }
+    
+    private static Transaction transaction() {
+        return Transaction.builder()
+            .id(UUID.randomUUID())
+            .fromAccountId(UUID.randomUUID())
+            .toAccountId(UUID.randomUUID())
+            .amount(BigDecimal.TEN)
+            .build();
+    }
+    
+    /**
+     * Regla de prueba que registra cada invocación en la lista compartida
+     */
+    private final class StubRule implements FraudRule {
+        
+        private final String name;
+        private final int cost;
+        private final boolean synchronous;
+        private final FraudVerdict maxVerdict;
+        private final Mono<FraudFinding> result;
+        
+        private StubRule(String name, int cost, boolean synchronous, FraudVerdict maxVerdict, Mono<FraudFinding> result) {
+            this.name = name;
+            this.cost = cost;
+            this.synchronous = synchronous;
+            this.maxVerdict = maxVerdict;
+            this.result = result;
+        }
+        
+        @Override
+        public String name() {
+            return name;
+        }
+        
+        @Override
+        public int cost() {
+            return cost;
+        }
+        
+        @Override
+        public boolean isSynchronous() {
+            return synchronous;
+        }
+        
+        @Override
+        public FraudVerdict maxVerdict() {
+            return maxVerdict;
+        }
+        
+        @Override
+        public Optional<FraudFinding> check(Transaction transaction) {
+            invoked.add(name);
+            return result.blockOptional();
+        }
+        
+        @Override
+        public Mono<FraudFinding> checkAsync(Transaction transaction) {
+            return Mono.defer(() -> {
+                invoked.add(name);
+                return result;
+            });
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.curso.reactivebanking.fraud;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleCircuitBreakerTest {
+    
+    private static final long OPEN_NANOS = 1_000;
+    
+    private final AtomicLong now = new AtomicLong();
+    private RuleCircuitBreaker breaker;
+    
+    @BeforeEach
+    void setUp() {
+        breaker = new RuleCircuitBreaker(3, OPEN_NANOS, now::get);
+    }
+    
+    @Test
+    void onFailure_OpensAfterConsecutiveFailuresOnly() {
+        // Given: un éxito reinicia la cuenta de fallos
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        
+        // Then
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.tryAcquire());
+        
+        // When
+        assertTrue(breaker.onFailure());
+        
+        // Then
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.tryAcquire());
+    }
+    
+    @Test
+    void tryAcquire_AllowsSingleTrialPerOpenPeriod() {
+        // Given
+        openCircuit();
+        
+        // When
+        now.addAndGet(OPEN_NANOS);
+        
+        // Then: una sola evaluación de prueba
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        
+        // When: la prueba falla y el circuito sigue abierto otro periodo
+        assertFalse(breaker.onFailure());
+        now.addAndGet(OPEN_NANOS - 1);
+        
+        // Then
+        assertFalse(breaker.tryAcquire());
+        now.incrementAndGet();
+        assertTrue(breaker.tryAcquire());
+    }
+    
+    @Test
+    void onSuccess_ClosesAfterSuccessfulTrial() {
+        // Given
+        openCircuit();
+        now.addAndGet(OPEN_NANOS);
+        assertTrue(breaker.tryAcquire());
+        
+        // When
+        breaker.onSuccess();
+        
+        // Then
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+    
+    private void openCircuit() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        assertTrue(breaker.isOpen());
+    }
+}
@@ -0,0 +1,82 @@
+package com.curso.reactivebanking.fraud;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingWindowCounterTest {
+    
+    private static final long NOW = 1_700_000_000L;
+    
+    private SlidingWindowCounter counter;
+    
+    @BeforeEach
+    void setUp() {
+        counter = new SlidingWindowCounter(60);
+    }
+    
+    @Test
+    void count_OnlyIncludesEventsInsideWindow() {
+        // Given
+        counter.record(NOW - 60);
+        counter.record(NOW - 59);
+        counter.record(NOW - 1);
+        counter.record(NOW);
+        counter.record(NOW);
+        
+        // Then
+        assertEquals(4, counter.count(NOW));
+        assertEquals(2, counter.count(NOW + 59));
+        assertEquals(0, counter.count(NOW + 60));
+    }
+    
+    @Test
+    void record_ReusesBucketOfPreviousLap() {
+        // Given
+        counter.record(NOW);
+        counter.record(NOW);
+        
+        // When: mismo índice de cubeta, una vuelta después
+        counter.record(NOW + 60);
+        
+        // Then
+        assertEquals(1, counter.count(NOW + 60));
+    }
+    
+    @Test
+    void isIdle_TrueOnlyAfterWholeWindowWithoutEvents() {
+        // Given
+        counter.record(NOW);
+        
+        // Then
+        assertFalse(counter.isIdle(NOW + 59));
+        assertTrue(counter.isIdle(NOW + 60));
+    }
+    
+    @Test
+    void record_ConcurrentEvents_AreAllCounted() throws InterruptedException {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        
+        // When
+        for (int thread = 0; thread < 8; thread++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.record(NOW - (i % 3));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        
+        // Then
+        assertEquals(80_000, counter.count(NOW));
+    }
+}
@@ -0,0 +1,82 @@
+package com.curso.reactivebanking.fraud;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WindowedHyperLogLogTest {
+    
+    private static final long SLOT = 1_000;
+    
+    private final Random random = new Random(42);
+    private WindowedHyperLogLog sketch;
+    
+    @BeforeEach
+    void setUp() {
+        sketch = new WindowedHyperLogLog(8, 6);
+    }
+    
+    @Test
+    void estimate_IsCloseForFewDistinctValuesAndIgnoresRepeats() {
+        // Given
+        for (int i = 0; i < 12; i++) {
+            UUID counterparty = randomUuid();
+            sketch.add(counterparty, SLOT);
+            sketch.add(counterparty, SLOT);
+        }
+        
+        // Then
+        assertEquals(12, sketch.estimate(SLOT), 1);
+    }
+    
+    @Test
+    void estimate_StaysWithinErrorBoundForManyValues() {
+        // Given
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add(randomUuid(), SLOT - (i % 6));
+        }
+        
+        // Then: error típico del 6,5% con 256 registros; se admite 4 veces
+        long estimate = sketch.estimate(SLOT);
+        assertTrue(Math.abs(estimate - 10_000) < 10_000 * 0.26, "estimación " + estimate);
+    }
+    
+    @Test
+    void estimate_OnlyIncludesSlotsInsideWindow() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            sketch.add(randomUuid(), SLOT - 6);
+        }
+        for (int i = 0; i < 3; i++) {
+            sketch.add(randomUuid(), SLOT);
+        }
+        
+        // When: un valor tardío de un slot ya reutilizado se ignora
+        sketch.add(randomUuid(), SLOT - 6);
+        
+        // Then
+        assertEquals(3, sketch.estimate(SLOT));
+        assertEquals(3, sketch.estimate(SLOT + 5));
+        assertEquals(0, sketch.estimate(SLOT + 6));
+    }
+    
+    @Test
+    void isIdle_WhenNoSlotInsideWindow() {
+        // Given
+        sketch.add(randomUuid(), SLOT);
+        
+        // Then
+        assertFalse(sketch.isIdle(SLOT + 5));
+        assertTrue(sketch.isIdle(SLOT + 6));
+    }
+    
+    private UUID randomUuid() {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+}
@@ -0,0 +1,82 @@
+package com.curso.reactivebanking.ledger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountBalanceMapTest {
+    
+    private AccountBalanceMap balances;
+    
+    @BeforeEach
+    void setUp() {
+        balances = new AccountBalanceMap(4);
+    }
+    
+    @Test
+    void put_ThenIndexOf_ReturnsBalance() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        
+        // When
+        int index = balances.put(accountId, 100_000L);
+        
+        // Then
+        assertEquals(index, balances.indexOf(accountId));
+        assertEquals(100_000L, balances.balanceAt(index));
+        assertEquals(accountId, balances.keyAt(index));
+        assertEquals(-1, balances.indexOf(UUID.randomUUID()));
+    }
+    
+    @Test
+    void put_ManyAccounts_ResizesAndKeepsEntriesAndDirtyFlags() {
+        // Given
+        List<UUID> accountIds = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID accountId = UUID.randomUUID();
+            accountIds.add(accountId);
+            int index = balances.put(accountId, i);
+            if (i % 10 == 0) {
+                balances.markDirty(index);
+            }
+        }
+        
+        // Then
+        assertEquals(1000, balances.size());
+        for (int i = 0; i < accountIds.size(); i++) {
+            assertEquals(i, balances.balanceAt(balances.indexOf(accountIds.get(i))));
+        }
+        assertEquals(100, balances.dirtyCount());
+    }
+    
+    @Test
+    void drainDirty_ReturnsEachModifiedEntryOnce() {
+        // Given
+        UUID from = UUID.randomUUID();
+        UUID to = UUID.randomUUID();
+        int fromIndex = balances.put(from, 500L);
+        int toIndex = balances.put(to, 0L);
+        
+        // When
+        balances.addAt(fromIndex, -200L);
+        balances.addAt(toIndex, 200L);
+        balances.markDirty(fromIndex);
+        balances.markDirty(toIndex);
+        balances.markDirty(fromIndex);
+        
+        List<UUID> drained = new ArrayList<>();
+        int count = balances.drainDirty(index -> drained.add(balances.keyAt(index)));
+        
+        // Then
+        assertEquals(2, count);
+        assertTrue(drained.contains(from) && drained.contains(to));
+        assertEquals(300L, balances.balanceAt(balances.indexOf(from)));
+        assertEquals(0, balances.drainDirty(index -> { }));
+    }
+}
@@ -0,0 +1,95 @@
+package com.curso.reactivebanking.ledger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.curso.reactivebanking.exception.InsufficientFundsException;
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.model.TransactionStatus;
+import com.curso.reactivebanking.repository.AccountCache;
+import com.curso.reactivebanking.repository.AccountRepository;
+import com.curso.reactivebanking.repository.TransferBatchRepository;
+import com.curso.reactivebanking.service.PipelineMetrics;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccountTableBalanceLedgerTest {
+    
+    // El destino ordena antes que el origen: el crédito se aplica antes que el débito
+    private static final UUID TO_ACCOUNT = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID FROM_ACCOUNT = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(100);
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private AccountCache accountCache;
+    
+    @Mock
+    private TransferBatchRepository transferBatchRepository;
+    
+    @Mock
+    private HotAccountStripes hotAccountStripes;
+    
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+    
+    private AccountTableBalanceLedger ledger;
+    private Transaction transaction;
+    
+    @BeforeEach
+    void setUp() {
+        ledger = new AccountTableBalanceLedger(accountRepository, accountCache, transferBatchRepository,
+            hotAccountStripes, pipelineMetrics);
+        ReflectionTestUtils.setField(ledger, "executionMode", TransferExecutionMode.STANDARD);
+        
+        transaction = Transaction.builder()
+            .id(UUID.randomUUID())
+            .fromAccountId(FROM_ACCOUNT)
+            .toAccountId(TO_ACCOUNT)
+            .amount(AMOUNT)
+            .status(TransactionStatus.APPROVED)
+            .build();
+        when(hotAccountStripes.isStriped(FROM_ACCOUNT)).thenReturn(true);
+        when(hotAccountStripes.isStriped(TO_ACCOUNT)).thenReturn(false);
+        when(accountRepository.updateBalanceById(TO_ACCOUNT, AMOUNT)).thenReturn(Mono.just(1));
+    }
+    
+    @Test
+    void applyTransfer_StripedDebitApplied() {
+        // Given
+        when(hotAccountStripes.debit(FROM_ACCOUNT, AMOUNT)).thenReturn(Mono.just(1));
+        when(accountCache.invalidate(anyCollection())).thenReturn(Mono.empty());
+        
+        // Then
+        StepVerifier.create(ledger.applyTransfer(transaction))
+            .expectNext(true)
+            .verifyComplete();
+    }
+    
+    @Test
+    void applyTransfer_StripedDebitLosesRace_FailsAfterCredit() {
+        // Given: un débito concurrente agotó las franjas y la fila principal
+        when(hotAccountStripes.debit(FROM_ACCOUNT, AMOUNT)).thenReturn(Mono.just(0));
+        
+        // Then: el error revierte la transacción, incluido el crédito ya aplicado
+        StepVerifier.create(ledger.applyTransfer(transaction))
+            .expectError(InsufficientFundsException.class)
+            .verify();
+        verify(accountRepository).updateBalanceById(TO_ACCOUNT, AMOUNT);
+    }
+}
@@ -0,0 +1,167 @@
+package com.curso.reactivebanking.ledger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.curso.reactivebanking.exception.InsufficientFundsException;
+import com.curso.reactivebanking.model.Account;
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.repository.AccountRepository;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryBalanceLedgerTest {
+    
+    private static final UUID ACCOUNT_A = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+    private static final UUID ACCOUNT_B = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+    private static final UUID ACCOUNT_C = UUID.fromString("550e8400-e29b-41d4-a716-446655440002");
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private TransactionalOperator flushOperator;
+    
+    private InMemoryBalanceLedger ledger;
+    private TransactionalOperator transactionalOperator;
+    
+    @BeforeEach
+    void setUp() {
+        ledger = new InMemoryBalanceLedger(accountRepository, flushOperator, new SimpleMeterRegistry(),
+            Duration.ofMinutes(1), 10_000);
+        transactionalOperator = TransactionalOperator.create(new NoOpTransactionManager());
+        
+        ledger.accountSaved(account(ACCOUNT_A, 100)).block();
+        ledger.accountSaved(account(ACCOUNT_B, 50)).block();
+        ledger.accountSaved(account(ACCOUNT_C, 0)).block();
+    }
+    
+    @Test
+    void applyTransfer_UncommittedCreditCannotBeSpent() {
+        // Given: B abona 50 a A en una transacción que termina en rollback
+        Mono<Void> rolledBack = ledger.applyTransfer(transaction(ACCOUNT_B, ACCOUNT_A, 50))
+            .then(Mono.fromRunnable(() -> {
+                // When: otra petición intenta gastar 150 de A antes del commit
+                StepVerifier.create(ledger.applyTransfer(transaction(ACCOUNT_A, ACCOUNT_C, 150)))
+                    .expectError(InsufficientFundsException.class)
+                    .verify();
+            }))
+            .then(Mono.<Void>error(new IllegalStateException("rollback")))
+            .as(transactionalOperator::transactional);
+        
+        StepVerifier.create(rolledBack)
+            .expectError(IllegalStateException.class)
+            .verify();
+        
+        // Then: ningún balance queda negativo y el débito de B se deshace
+        StepVerifier.create(ledger.getBalances(List.of(ACCOUNT_A, ACCOUNT_B, ACCOUNT_C)))
+            .expectNext(Map.of(ACCOUNT_A, amount(100), ACCOUNT_B, amount(50), ACCOUNT_C, amount(0)))
+            .verifyComplete();
+    }
+    
+    @Test
+    void applyTransfer_CreditVisibleAfterCommit() {
+        // Given
+        Mono<BigDecimal> committed = ledger.applyTransfer(transaction(ACCOUNT_B, ACCOUNT_A, 50))
+            .then(ledger.getBalance(ACCOUNT_A))
+            .as(transactionalOperator::transactional);
+        
+        // Then: dentro de la transacción A aún no ve el crédito; tras el commit sí
+        StepVerifier.create(committed)
+            .expectNext(amount(100))
+            .verifyComplete();
+        StepVerifier.create(ledger.getBalances(List.of(ACCOUNT_A, ACCOUNT_B)))
+            .expectNext(Map.of(ACCOUNT_A, amount(150), ACCOUNT_B, amount(0)))
+            .verifyComplete();
+    }
+    
+    @Test
+    void applyBatch_RollbackRestoresDebitsAndDropsCredits() {
+        // Given
+        Transaction transfer = transaction(ACCOUNT_A, ACCOUNT_C, 80);
+        Map<UUID, BigDecimal> deltas = Map.of(ACCOUNT_A, amount(-80), ACCOUNT_C, amount(80));
+        Mono<Void> rolledBack = ledger.applyBatch(List.of(transfer), deltas)
+            .then(Mono.fromRunnable(() ->
+                // When: el crédito de C todavía no se puede gastar
+                StepVerifier.create(ledger.applyTransfer(transaction(ACCOUNT_C, ACCOUNT_B, 80)))
+                    .expectError(InsufficientFundsException.class)
+                    .verify()))
+            .then(Mono.<Void>error(new IllegalStateException("rollback")))
+            .as(transactionalOperator::transactional);
+        
+        StepVerifier.create(rolledBack)
+            .expectError(IllegalStateException.class)
+            .verify();
+        
+        // Then
+        StepVerifier.create(ledger.getBalances(List.of(ACCOUNT_A, ACCOUNT_C)))
+            .expectNext(Map.of(ACCOUNT_A, amount(100), ACCOUNT_C, amount(0)))
+            .verifyComplete();
+    }
+    
+    private static Account account(UUID id, long balance) {
+        return Account.builder()
+            .id(id)
+            .balance(BigDecimal.valueOf(balance))
+            .build();
+    }
+    
+    private static Transaction transaction(UUID from, UUID to, long amount) {
+        return Transaction.builder()
+            .id(UUID.randomUUID())
+            .fromAccountId(from)
+            .toAccountId(to)
+            .amount(BigDecimal.valueOf(amount))
+            .build();
+    }
+    
+    private static BigDecimal amount(long value) {
+        return BigDecimal.valueOf(value, 0).setScale(2);
+    }
+    
+    /**
+     * Gestor de transacciones sin recurso: solo activa las sincronizaciones de Spring
+     */
+    private static final class NoOpTransactionManager extends AbstractReactiveTransactionManager {
+        
+        @Override
+        protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+            return new Object();
+        }
+        
+        @Override
+        protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager,
+                                     Object transaction, TransactionDefinition definition) {
+            return Mono.empty();
+        }
+        
+        @Override
+        protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+                                      GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+        
+        @Override
+        protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+                                        GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.curso.reactivebanking.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.curso.reactivebanking.model.Account;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccountCacheTest {
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private AccountCache accountCache;
+    private Account account;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        accountCache = new AccountCache(accountRepository, meterRegistry, true, 2, Duration.ofMinutes(5));
+        account = account("TEST001", 1000);
+    }
+    
+    @Test
+    void findById_LoadsOnceAndReturnsCopies() {
+        // Given
+        when(accountRepository.findById(account.getId())).thenReturn(Mono.just(account));
+        
+        // When: modificar la copia devuelta no altera la entrada
+        accountCache.findById(account.getId())
+            .doOnNext(first -> first.setBalance(BigDecimal.ZERO))
+            .block();
+        
+        // Then
+        StepVerifier.create(accountCache.findById(account.getId()))
+            .expectNextMatches(cached -> cached.getBalance().compareTo(BigDecimal.valueOf(1000)) == 0)
+            .verifyComplete();
+        verify(accountRepository, times(1)).findById(account.getId());
+        assertEquals(1, meterRegistry.get("banking.account.cache.gets").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("banking.account.cache.gets").tag("result", "miss").counter().count());
+    }
+    
+    @Test
+    void invalidate_ReloadsOnNextRead() {
+        // Given
+        Account updated = account(account.getAccountNumber(), 500);
+        updated.setId(account.getId());
+        when(accountRepository.findById(account.getId()))
+            .thenReturn(Mono.just(account), Mono.just(updated));
+        accountCache.findById(account.getId()).block();
+        
+        // When
+        accountCache.invalidate(List.of(account.getId())).block();
+        
+        // Then
+        StepVerifier.create(accountCache.findById(account.getId()))
+            .expectNextMatches(cached -> cached.getBalance().compareTo(BigDecimal.valueOf(500)) == 0)
+            .verifyComplete();
+    }
+    
+    @Test
+    void existsById_DoesNotCacheMissingAccounts() {
+        // Given
+        when(accountRepository.findById(account.getId()))
+            .thenReturn(Mono.empty(), Mono.just(account));
+        
+        // Then
+        StepVerifier.create(accountCache.existsById(account.getId()))
+            .expectNext(false)
+            .verifyComplete();
+        StepVerifier.create(accountCache.existsById(account.getId()))
+            .expectNext(true)
+            .verifyComplete();
+    }
+    
+    @Test
+    void findByAccountNumber_UsesCachedRowAfterFirstLoad() {
+        // Given
+        when(accountRepository.findByAccountNumber("TEST001")).thenReturn(Mono.just(account));
+        when(accountRepository.findById(account.getId())).thenReturn(Mono.just(account));
+        
+        // When
+        accountCache.findByAccountNumber("TEST001").block();
+        accountCache.findByAccountNumber("TEST001").block();
+        accountCache.findByAccountNumber("TEST001").block();
+        
+        // Then
+        verify(accountRepository, times(1)).findByAccountNumber("TEST001");
+        verify(accountRepository, times(1)).findById(account.getId());
+    }
+    
+    @Test
+    void findById_EvictsLeastRecentlyUsedBeyondMaxSize() {
+        // Given
+        AccountCache smallCache = new AccountCache(accountRepository, meterRegistry, true, 10, Duration.ofMinutes(5));
+        List<Account> accounts = IntStream.range(0, 11)
+            .mapToObj(i -> account("TEST" + i, i))
+            .toList();
+        when(accountRepository.findById(any(UUID.class)))
+            .thenAnswer(invocation -> Mono.just(accounts.stream()
+                .filter(candidate -> candidate.getId().equals(invocation.getArgument(0)))
+                .findFirst()
+                .orElseThrow()));
+        for (int i = 0; i < 10; i++) {
+            smallCache.findById(accounts.get(i).getId()).block();
+        }
+        smallCache.findById(accounts.get(0).getId()).block();
+        
+        // When: al superar el máximo se reduce al 90% descartando las usadas hace más tiempo
+        smallCache.findById(accounts.get(10).getId()).block();
+        
+        // Then
+        smallCache.findById(accounts.get(0).getId()).block();
+        smallCache.findById(accounts.get(1).getId()).block();
+        smallCache.findById(accounts.get(3).getId()).block();
+        verify(accountRepository, times(1)).findById(accounts.get(0).getId());
+        verify(accountRepository, times(2)).findById(accounts.get(1).getId());
+        verify(accountRepository, times(1)).findById(accounts.get(3).getId());
+    }
+    
+    private static Account account(String accountNumber, long balance) {
+        return Account.builder()
+            .id(UUID.randomUUID())
+            .accountNumber(accountNumber)
+            .ownerName("Juan Pérez")
+            .balance(BigDecimal.valueOf(balance))
+            .build();
+    }
+}
@@ -2,27 +2,36 @@ package com.curso.reactivebanking.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
 import com.curso.reactivebanking.dto.AccountDTO;
 import com.curso.reactivebanking.exception.AccountNotFoundException;
 import com.curso.reactivebanking.exception.DuplicateAccountException;
+import com.curso.reactivebanking.ledger.BalanceLedger;
 import com.curso.reactivebanking.model.Account;
+import com.curso.reactivebanking.repository.AccountCache;
 import com.curso.reactivebanking.repository.AccountRepository;
 import com.curso.reactivebanking.service.AccountService;
+import com.curso.reactivebanking.stream.AccountBalanceStream;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,7 +40,15 @@ class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
     
-    @InjectMocks
+    @Mock
+    private BalanceLedger balanceLedger;
+    
+    @Mock
+    private AccountBalanceStream accountBalanceStream;
+    
+    @Mock
+    private TransactionalOperator transactionalOperator;
+    
     private AccountService accountService;
     
     private Account testAccount;
@@ -40,6 +57,12 @@ class AccountServiceTest {
     
     @BeforeEach
     void setUp() {
+        AccountCache accountCache = new AccountCache(accountRepository, new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(5));
+        accountService = new AccountService(accountRepository, balanceLedger, accountBalanceStream, accountCache,
+            transactionalOperator);
+        lenient().when(transactionalOperator.transactional(any(Mono.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        
         testAccountId = UUID.randomUUID();
         testAccount = Account.builder()
             .id(testAccountId)
@@ -64,6 +87,8 @@ class AccountServiceTest {
             .thenReturn(Mono.just(false));
         when(accountRepository.save(any(Account.class)))
             .thenReturn(Mono.just(testAccount));
+        when(balanceLedger.accountSaved(testAccount))
+            .thenReturn(Mono.empty());
         
         // When & Then
         StepVerifier.create(accountService.createAccount(testAccountDTO))
@@ -91,6 +116,8 @@ class AccountServiceTest {
         // Given
         when(accountRepository.findById(testAccountId))
             .thenReturn(Mono.just(testAccount));
+        when(balanceLedger.refreshBalance(testAccount))
+            .thenReturn(Mono.just(testAccount));
         
         // When & Then
         StepVerifier.create(accountService.getAccountById(testAccountId))
@@ -126,10 +153,36 @@ class AccountServiceTest {
         
         when(accountRepository.findAll())
             .thenReturn(Flux.just(testAccount, account2));
+        when(balanceLedger.refreshBalance(any(Account.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         
         // When & Then
         StepVerifier.create(accountService.getAllAccounts())
             .expectNextCount(2)
             .verifyComplete();
     }
-} 
\ No newline at end of file
+    
+    @Test
+    void updateAccount_LocksBalanceBeforeSavingInOneTransaction() {
+        // Given
+        when(balanceLedger.lockForUpdate(testAccountId))
+            .thenReturn(Mono.empty());
+        when(accountRepository.findById(testAccountId))
+            .thenReturn(Mono.just(testAccount));
+        when(accountRepository.save(any(Account.class)))
+            .thenReturn(Mono.just(testAccount));
+        when(balanceLedger.accountSaved(testAccount))
+            .thenReturn(Mono.empty());
+        
+        // When & Then
+        StepVerifier.create(accountService.updateAccount(testAccountId, testAccountDTO))
+            .expectNextMatches(account -> account.getId().equals(testAccountId))
+            .verifyComplete();
+        
+        verify(transactionalOperator).transactional(any(Mono.class));
+        InOrder order = inOrder(balanceLedger, accountRepository);
+        order.verify(balanceLedger).lockForUpdate(testAccountId);
+        order.verify(accountRepository).save(testAccount);
+        order.verify(balanceLedger).accountSaved(testAccount);
+    }
+}
@@ -0,0 +1,184 @@
+package com.curso.reactivebanking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.curso.reactivebanking.dto.TransactionDTO;
+import com.curso.reactivebanking.dto.TransferRequestDTO;
+import com.curso.reactivebanking.fraud.AccountFanOutTracker;
+import com.curso.reactivebanking.fraud.AccountVelocityTracker;
+import com.curso.reactivebanking.ledger.BalanceLedger;
+import com.curso.reactivebanking.model.Transaction;
+import com.curso.reactivebanking.model.TransactionStatus;
+import com.curso.reactivebanking.repository.AccountCache;
+import com.curso.reactivebanking.repository.TransactionRepository;
+import com.curso.reactivebanking.repository.TransferBatchRepository;
+import com.curso.reactivebanking.stream.AccountBalanceStream;
+import com.curso.reactivebanking.stream.TransactionStatsAggregator;
+import com.curso.reactivebanking.stream.TransactionStreamHub;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceTest {
+    
+    private static final UUID FROM = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+    private static final UUID TO = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private AccountCache accountCache;
+    
+    @Mock
+    private FraudDetectionService fraudDetectionService;
+    
+    @Mock
+    private TransferBatchRepository transferBatchRepository;
+    
+    @Mock
+    private TransactionalOperator transactionalOperator;
+    
+    @Mock
+    private TransferLaneScheduler transferLaneScheduler;
+    
+    @Mock
+    private BalanceLedger balanceLedger;
+    
+    @Mock
+    private R2dbcEntityTemplate entityTemplate;
+    
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+    
+    @Mock
+    private AccountVelocityTracker velocityTracker;
+    
+    @Mock
+    private AccountFanOutTracker fanOutTracker;
+    
+    @Mock
+    private TransactionStreamHub transactionStreamHub;
+    
+    @Mock
+    private AccountBalanceStream accountBalanceStream;
+    
+    @Mock
+    private TransactionStatsAggregator transactionStatsAggregator;
+    
+    private TransactionService transactionService;
+    
+    @BeforeEach
+    void setUp() {
+        transactionService = new TransactionService(transactionRepository, accountCache, fraudDetectionService,
+            transferBatchRepository, transactionalOperator, transferLaneScheduler, balanceLedger, entityTemplate,
+            new SimpleMeterRegistry(), pipelineMetrics, velocityTracker, fanOutTracker, transactionStreamHub,
+            accountBalanceStream, transactionStatsAggregator);
+        ReflectionTestUtils.setField(transactionService, "batchChunkSize", 500);
+        ReflectionTestUtils.setField(transactionService, "batchMaxWait", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(transactionService, "batchFraudConcurrency", 4);
+        ReflectionTestUtils.setField(transactionService, "batchMaxRetries", 3);
+        
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(fraudDetectionService.screenTransaction(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            transaction.setStatus(TransactionStatus.APPROVED);
+            return Mono.just(transaction);
+        });
+        lenient().when(transferBatchRepository.insertAll(anyList()))
+            .thenAnswer(invocation -> Mono.just((long) invocation.<List<?>>getArgument(0).size()));
+    }
+    
+    @Test
+    void transferBatch_PlansOnRunningBalances() {
+        // Given: la cuenta origen solo cubre una de las dos transferencias
+        when(balanceLedger.getBalances(anyCollection())).thenReturn(Mono.just(balances(100)));
+        when(balanceLedger.applyBatch(anyList(), anyMap())).thenReturn(Mono.empty());
+        
+        // Then
+        StepVerifier.create(transactionService.transferBatch(Flux.just(request(60), request(60))))
+            .expectNextMatches(result -> result.getStatus() == TransactionStatus.APPROVED)
+            .expectNextMatches(result -> result.getStatus() == TransactionStatus.REJECTED && result.getId() == null)
+            .verifyComplete();
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<UUID, BigDecimal>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(balanceLedger).applyBatch(anyList(), deltas.capture());
+        assertEquals(0, deltas.getValue().get(FROM).compareTo(BigDecimal.valueOf(-60)));
+        assertEquals(0, deltas.getValue().get(TO).compareTo(BigDecimal.valueOf(60)));
+        verify(transactionStreamHub, times(1)).publish(any(TransactionDTO.class));
+        verify(transactionStatsAggregator, times(1)).record(any(TransactionDTO.class));
+    }
+    
+    @Test
+    void transferBatch_RetriesWhenBalancesChange() {
+        // Given: el primer intento encuentra los balances modificados
+        when(balanceLedger.getBalances(anyCollection())).thenReturn(Mono.just(balances(100)));
+        when(balanceLedger.applyBatch(anyList(), anyMap()))
+            .thenReturn(Mono.error(new OptimisticLockingFailureException("cambio")), Mono.empty());
+        
+        // Then: un solo resultado por petición y un solo evento publicado
+        StepVerifier.create(transactionService.transferBatch(Flux.just(request(60))))
+            .expectNextMatches(result -> result.getStatus() == TransactionStatus.APPROVED)
+            .verifyComplete();
+        verify(balanceLedger, times(2)).applyBatch(anyList(), anyMap());
+        verify(transferBatchRepository, times(2)).insertAll(anyList());
+        verify(transactionStreamHub, times(1)).publish(any(TransactionDTO.class));
+    }
+    
+    @Test
+    void transferBatch_RejectsAccountDeletedBeforePersisting() {
+        // Given: la cuenta origen desaparece entre la validación y la transacción del bloque
+        when(balanceLedger.getBalances(anyCollection()))
+            .thenReturn(Mono.just(balances(100)), Mono.just(Map.of(TO, BigDecimal.ZERO)));
+        when(balanceLedger.applyBatch(anyList(), anyMap())).thenReturn(Mono.empty());
+        
+        // Then
+        StepVerifier.create(transactionService.transferBatch(Flux.just(request(60))))
+            .expectNextMatches(result -> result.getStatus() == TransactionStatus.REJECTED
+                && result.getFraudAnalysis().contains(FROM.toString()))
+            .verifyComplete();
+        verify(transactionStreamHub, never()).publish(any(TransactionDTO.class));
+    }
+    
+    private static Map<UUID, BigDecimal> balances(long fromBalance) {
+        return Map.of(FROM, BigDecimal.valueOf(fromBalance), TO, BigDecimal.ZERO);
+    }
+    
+    private static TransferRequestDTO request(long amount) {
+        return TransferRequestDTO.builder()
+            .fromAccountId(FROM)
+            .toAccountId(TO)
+            .amount(BigDecimal.valueOf(amount))
+            .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.curso.reactivebanking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import com.curso.reactivebanking.exception.TransferLaneSaturatedException;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransferLaneSchedulerTest {
+    
+    private static final UUID FROM = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+    private static final UUID TO = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+    
+    @Test
+    void submit_RejectsWhenLaneIsFull() {
+        // Given: un único carril con capacidad para dos tareas, ambas ocupadas
+        TransferLaneScheduler scheduler = new TransferLaneScheduler(1, 2, new SimpleMeterRegistry());
+        Sinks.Empty<Void> release = Sinks.empty();
+        Disposable running = scheduler.submit(FROM, TO, release::asMono).subscribe();
+        Disposable queued = scheduler.submit(FROM, TO, () -> Mono.just("encolada")).subscribe();
+        assertEquals(2, scheduler.queueDepth(0));
+        
+        // When / Then: la tercera se rechaza sin encolarse
+        StepVerifier.create(scheduler.submit(FROM, TO, () -> Mono.just("rechazada")))
+            .expectError(TransferLaneSaturatedException.class)
+            .verify();
+        assertEquals(2, scheduler.queueDepth(0));
+        
+        // Then: al liberar el carril vuelve a admitir trabajo
+        release.tryEmitEmpty();
+        StepVerifier.create(scheduler.submit(FROM, TO, () -> Mono.just("admitida")))
+            .expectNext("admitida")
+            .verifyComplete();
+        assertEquals(0, scheduler.queueDepth(0));
+        running.dispose();
+        queued.dispose();
+    }
+    
+    @Test
+    void submit_CrossLaneRejectionReleasesFirstLane() {
+        // Given: dos carriles de capacidad uno, el de mayor índice ocupado
+        TransferLaneScheduler scheduler = new TransferLaneScheduler(2, 1, new SimpleMeterRegistry());
+        UUID low = accountInLane(scheduler, 0);
+        UUID high = accountInLane(scheduler, 1);
+        Sinks.Empty<Void> release = Sinks.empty();
+        Disposable running = scheduler.submit(high, high, release::asMono).subscribe();
+        
+        // When / Then: la transferencia entre carriles se rechaza y libera el primero
+        StepVerifier.create(scheduler.submit(low, high, () -> Mono.just("rechazada")))
+            .expectError(TransferLaneSaturatedException.class)
+            .verify();
+        assertEquals(0, scheduler.queueDepth(0));
+        StepVerifier.create(scheduler.submit(low, low, () -> Mono.just("admitida")))
+            .expectNext("admitida")
+            .verifyComplete();
+        release.tryEmitEmpty();
+        running.dispose();
+    }
+    
+    private static UUID accountInLane(TransferLaneScheduler scheduler, int lane) {
+        UUID accountId;
+        do {
+            accountId = UUID.randomUUID();
+        } while (scheduler.laneOf(accountId) != lane);
+        return accountId;
+    }
+}
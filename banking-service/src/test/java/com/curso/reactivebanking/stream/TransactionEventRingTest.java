@@ -0,0 +1,77 @@
+package com.curso.reactivebanking.stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.curso.reactivebanking.dto.TransactionDTO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionEventRingTest {
+    
+    private TransactionEventRing ring;
+    
+    @BeforeEach
+    void setUp() {
+        ring = new TransactionEventRing(4);
+    }
+    
+    @Test
+    void append_AssignsIncreasingIds() {
+        // When
+        TransactionDTO transaction = transaction(1);
+        TransactionEvent first = ring.append(transaction);
+        TransactionEvent second = ring.append(transaction(2));
+        
+        // Then
+        assertEquals(1, first.id());
+        assertEquals(2, second.id());
+        assertSame(transaction, first.transaction());
+        assertEquals(2, ring.lastId());
+    }
+    
+    @Test
+    void since_ReturnsEventsAfterIdInOrder() {
+        // Given
+        for (int i = 1; i <= 3; i++) {
+            ring.append(transaction(i));
+        }
+        
+        // Then
+        assertEquals(List.of(2L, 3L), ids(ring.since(1)));
+        assertEquals(List.of(1L, 2L, 3L), ids(ring.since(0)));
+        assertTrue(ring.since(3).isEmpty());
+        assertTrue(ring.since(10).isEmpty());
+    }
+    
+    @Test
+    void since_OnlyReturnsRetainedEventsAfterWrapping() {
+        // Given
+        for (int i = 1; i <= 10; i++) {
+            ring.append(transaction(i));
+        }
+        
+        // Then: se conservan los 4 últimos
+        assertEquals(7, ring.oldestId());
+        assertEquals(List.of(7L, 8L, 9L, 10L), ids(ring.since(2)));
+        assertEquals(List.of(9L, 10L), ids(ring.since(8)));
+        assertEquals(0, ring.since(8).get(0).transaction().getAmount().compareTo(BigDecimal.valueOf(9)));
+    }
+    
+    private static TransactionDTO transaction(int amount) {
+        return TransactionDTO.builder()
+            .amount(BigDecimal.valueOf(amount))
+            .build();
+    }
+    
+    private static List<Long> ids(List<TransactionEvent> events) {
+        return events.stream()
+            .map(TransactionEvent::id)
+            .toList();
+    }
+}
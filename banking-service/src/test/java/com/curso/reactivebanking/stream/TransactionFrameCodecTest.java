@@ -0,0 +1,87 @@
+package com.curso.reactivebanking.stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.curso.reactivebanking.dto.TransactionDTO;
+import com.curso.reactivebanking.fraud.FraudReason;
+import com.curso.reactivebanking.model.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionFrameCodecTest {
+    
+    @Test
+    void encode_PacksAllEventsInFixedLayout() {
+        // Given
+        List<TransactionEvent> events = List.of(
+            new TransactionEvent(1, transaction(new BigDecimal("10.50"), List.of())),
+            new TransactionEvent(2, transaction(new BigDecimal("25000"), List.of(FraudReason.HIGH_AMOUNT, FraudReason.HIGH_FAN_OUT))));
+        
+        // When
+        byte[] frame = TransactionFrameCodec.encode(events);
+        
+        // Then
+        assertEquals(TransactionFrameCodec.HEADER_SIZE + 2 * TransactionFrameCodec.EVENT_SIZE, frame.length);
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        assertEquals(TransactionFrameCodec.VERSION, buffer.get());
+        assertEquals(2, buffer.getInt());
+        assertEquals(1, buffer.getLong(TransactionFrameCodec.HEADER_SIZE));
+        assertEquals(1050, buffer.getLong(TransactionFrameCodec.HEADER_SIZE + 56));
+        assertEquals(FraudReason.HIGH_AMOUNT.bit() | FraudReason.HIGH_FAN_OUT.bit(),
+            buffer.getInt(TransactionFrameCodec.HEADER_SIZE + TransactionFrameCodec.EVENT_SIZE + 73));
+    }
+    
+    @Test
+    void decode_RestoresEncodedEvents() {
+        // Given
+        TransactionDTO transaction = transaction(new BigDecimal("0.01"), List.of(FraudReason.SUSPICIOUS_HOUR));
+        
+        // When
+        List<TransactionEvent> decoded = TransactionFrameCodec.decode(
+            ByteBuffer.wrap(TransactionFrameCodec.encode(List.of(new TransactionEvent(42, transaction)))));
+        
+        // Then
+        assertEquals(1, decoded.size());
+        TransactionDTO result = decoded.get(0).transaction();
+        assertEquals(42, decoded.get(0).id());
+        assertEquals(transaction.getId(), result.getId());
+        assertEquals(transaction.getFromAccountId(), result.getFromAccountId());
+        assertEquals(transaction.getToAccountId(), result.getToAccountId());
+        assertEquals(new BigDecimal("0.01"), result.getAmount());
+        assertEquals(transaction.getTimestamp(), result.getTimestamp());
+        assertEquals(TransactionStatus.REVIEW, result.getStatus());
+        assertEquals(List.of(FraudReason.SUSPICIOUS_HOUR), result.getFraudReasons());
+        assertNull(result.getFraudAnalysis());
+    }
+    
+    @Test
+    void decode_RejectsUnknownVersion() {
+        // Given
+        byte[] frame = TransactionFrameCodec.encode(List.of());
+        frame[0] = 99;
+        
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> TransactionFrameCodec.decode(ByteBuffer.wrap(frame)));
+    }
+    
+    private static TransactionDTO transaction(BigDecimal amount, List<FraudReason> reasons) {
+        return TransactionDTO.builder()
+            .id(UUID.randomUUID())
+            .fromAccountId(UUID.randomUUID())
+            .toAccountId(UUID.randomUUID())
+            .amount(amount)
+            .timestamp(LocalDateTime.of(2024, 3, 1, 3, 15, 30, 123_000_000))
+            .status(TransactionStatus.REVIEW)
+            .fraudReasons(reasons)
+            .fraudAnalysis("Horario inusual: 3:00")
+            .build();
+    }
+}
@@ -0,0 +1,211 @@
+package com.curso.reactivebanking.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.curso.reactivebanking.dto.TransactionDTO;
+import com.curso.reactivebanking.model.TransactionStatus;
+
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionStreamHubTest {
+    
+    private static final UUID FROM = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+    private static final UUID TO = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+    
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionStreamHub hub;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hub = new TransactionStreamHub(meterRegistry, new ObjectMapper(), 16, StreamOverflowPolicy.DROP_OLDEST, 16);
+    }
+    
+    @Test
+    void subscribe_ReplaysMissedEventsThenLive() {
+        // Given
+        for (int i = 1; i <= 3; i++) {
+            hub.publish(transaction(i));
+        }
+        
+        // Then
+        StepVerifier.create(hub.subscribe(TransactionStreamFilter.NONE, 1L).map(TransactionEvent::id))
+            .expectNext(2L, 3L)
+            .then(() -> hub.publish(transaction(4)))
+            .expectNext(4L)
+            .thenCancel()
+            .verify();
+        assertEquals(0, subscribers());
+    }
+    
+    @Test
+    void subscribe_CancelDuringReplayUnregisters() {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            hub.publish(transaction(i));
+        }
+        
+        // When: el cliente se va antes de terminar el reenvío
+        StepVerifier.create(hub.subscribe(TransactionStreamFilter.NONE, 0L), 1)
+            .expectNextCount(1)
+            .thenCancel()
+            .verify();
+        
+        // Then
+        assertEquals(0, subscribers());
+    }
+    
+    @Test
+    void subscribe_AccountFilterOnlyReceivesItsAccounts() {
+        // Given
+        UUID other = UUID.randomUUID();
+        TransactionStreamFilter filter = new TransactionStreamFilter(Set.of(TO), null, null);
+        
+        // Then
+        StepVerifier.create(hub.subscribe(filter, null).map(event -> event.transaction().getToAccountId()))
+            .then(() -> {
+                hub.publish(transaction(1, FROM, other));
+                hub.publish(transaction(2, FROM, TO));
+            })
+            .expectNext(TO)
+            .thenCancel()
+            .verify();
+    }
+    
+    @Test
+    void publish_DropOldestKeepsNewestEvents() {
+        // Given: un suscriptor que no pide eventos con buffer de 4
+        TransactionStreamHub small = hub(StreamOverflowPolicy.DROP_OLDEST);
+        
+        // Then: los dos más antiguos se descartan
+        StepVerifier.create(small.subscribe(TransactionStreamFilter.NONE, null).map(TransactionEvent::id), 0)
+            .then(() -> publish(small, 6))
+            .thenRequest(10)
+            .expectNext(3L, 4L, 5L, 6L)
+            .thenCancel()
+            .verify();
+        assertEquals(2, dropped());
+        assertEquals(0, disconnected());
+    }
+    
+    @Test
+    void publish_DropLatestKeepsBufferedEvents() {
+        // Given
+        TransactionStreamHub small = hub(StreamOverflowPolicy.DROP_LATEST);
+        
+        // Then: los dos nuevos se descartan y el suscriptor sigue recibiendo
+        StepVerifier.create(small.subscribe(TransactionStreamFilter.NONE, null).map(TransactionEvent::id), 0)
+            .then(() -> publish(small, 6))
+            .thenRequest(10)
+            .expectNext(1L, 2L, 3L, 4L)
+            .then(() -> small.publish(transaction(7)))
+            .expectNext(7L)
+            .thenCancel()
+            .verify();
+        assertEquals(2, dropped());
+        assertEquals(0, disconnected());
+    }
+    
+    @Test
+    void publish_DisconnectCompletesSlowSubscriber() {
+        // Given
+        TransactionStreamHub small = hub(StreamOverflowPolicy.DISCONNECT);
+        
+        // Then: al desbordar se descarta el buffer y el stream termina
+        StepVerifier.create(small.subscribe(TransactionStreamFilter.NONE, null), 0)
+            .then(() -> publish(small, 6))
+            .expectComplete()
+            .verify();
+        assertEquals(1, dropped());
+        assertEquals(1, disconnected());
+        assertEquals(0, subscribers());
+    }
+    
+    @Test
+    void publish_ConcurrentPublishersDeliverInIdOrder() throws InterruptedException {
+        // Given: varios hilos publicando a la vez hacia un suscriptor sin filtro
+        int threads = 4;
+        int perThread = 2_000;
+        TransactionStreamHub large = new TransactionStreamHub(meterRegistry, new ObjectMapper(),
+            threads * perThread, StreamOverflowPolicy.DROP_LATEST, 16);
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        Disposable subscription = large.subscribe(TransactionStreamFilter.NONE, null)
+            .subscribe(event -> received.add(event.id()));
+        
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                publish(large, perThread);
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        subscription.dispose();
+        
+        // Then: sin huecos ni desorden, así Last-Event-ID nunca salta un evento no entregado
+        assertEquals(threads * perThread, received.size());
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i + 1L, received.get(i));
+        }
+    }
+    
+    private TransactionStreamHub hub(StreamOverflowPolicy policy) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new TransactionStreamHub(meterRegistry, new ObjectMapper(), 4, policy, 16);
+    }
+    
+    private static void publish(TransactionStreamHub target, int count) {
+        for (int i = 1; i <= count; i++) {
+            target.publish(transaction(i));
+        }
+    }
+    
+    private double dropped() {
+        return meterRegistry.get("banking.stream.dropped").counter().count();
+    }
+    
+    private double disconnected() {
+        return meterRegistry.get("banking.stream.disconnected").counter().count();
+    }
+    
+    private double subscribers() {
+        return meterRegistry.get("banking.stream.subscribers").gauge().value();
+    }
+    
+    private static TransactionDTO transaction(long amount) {
+        return transaction(amount, FROM, TO);
+    }
+    
+    private static TransactionDTO transaction(long amount, UUID from, UUID to) {
+        return TransactionDTO.builder()
+            .id(UUID.randomUUID())
+            .fromAccountId(from)
+            .toAccountId(to)
+            .amount(BigDecimal.valueOf(amount))
+            .status(TransactionStatus.APPROVED)
+            .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.curso.reactivebanking.stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TumblingWindowAggregateTest {
+    
+    private static final long NOW = 1_700_000_000_000L;
+    
+    private TumblingWindowAggregate aggregate;
+    
+    @BeforeEach
+    void setUp() {
+        aggregate = new TumblingWindowAggregate(1_000, 60, 4);
+    }
+    
+    @Test
+    void snapshot_SumsCountAmountAndStatusesInsideWindow() {
+        // Given
+        aggregate.record(NOW - 59_000, 1_000, 1);
+        aggregate.record(NOW - 30_000, 2_550, 1);
+        aggregate.record(NOW, 100, 2);
+        
+        // When
+        TumblingWindowAggregate.Totals totals = aggregate.snapshot(NOW);
+        
+        // Then
+        assertEquals(3, totals.count());
+        assertEquals(3_650, totals.amountCents());
+        assertArrayEquals(new long[] {0, 2, 1, 0}, totals.byStatus());
+    }
+    
+    @Test
+    void snapshot_ExcludesBucketsThatLeftWindow() {
+        // Given
+        aggregate.record(NOW - 60_000, 500, 0);
+        aggregate.record(NOW - 1_000, 700, 0);
+        
+        // Then
+        assertEquals(1, aggregate.snapshot(NOW).count());
+        assertEquals(700, aggregate.snapshot(NOW).amountCents());
+        assertEquals(0, aggregate.snapshot(NOW + 59_000).count());
+    }
+    
+    @Test
+    void record_ReusesBucketForNewPeriodAndIgnoresLateValues() {
+        // Given
+        aggregate.record(NOW, 100, 3);
+        
+        // When: la misma cubeta, un periodo después, y un valor tardío del periodo anterior
+        aggregate.record(NOW + 60_000, 200, 1);
+        aggregate.record(NOW, 300, 3);
+        
+        // Then
+        TumblingWindowAggregate.Totals totals = aggregate.snapshot(NOW + 60_000);
+        assertEquals(1, totals.count());
+        assertEquals(200, totals.amountCents());
+        assertArrayEquals(new long[] {0, 1, 0, 0}, totals.byStatus());
+    }
+}